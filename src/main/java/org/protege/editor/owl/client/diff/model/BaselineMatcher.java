@@ -0,0 +1,217 @@
+package org.protege.editor.owl.client.diff.model;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import org.semanticweb.owlapi.model.AnnotationChange;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Finds the previous values (baselines) of built-in additions among the removals made in the same commit.
+ * Removals are hashed once by commit, subject, change type and axiom type (or ontology annotation), and
+ * within each such bucket by property, so that the candidate removals of each addition are looked up
+ * rather than searched for. An addition with a property matches the removals with the same property as well
+ * as those without a property; an addition without a property matches all removals in its bucket.
+ *
+ * In {@link Mode#SINGLE} mode an addition is only aligned if it has exactly one candidate removal. In
+ * {@link Mode#ORDERED} mode, additions with several candidates are paired with the first candidate removal
+ * that has not been paired yet, in the order the changes were made, preferring removals with the same
+ * property; each removal is then the baseline of at most one addition.
+ */
+public final class BaselineMatcher {
+    private static final Object ONTOLOGY_ANNOTATION = new Object();
+    private final Mode mode;
+
+    /**
+     * Constructor
+     *
+     * @param mode  Alignment mode
+     */
+    public BaselineMatcher(Mode mode) {
+        this.mode = checkNotNull(mode);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Pair the given changes' additions with the removals that they replace
+     *
+     * @param changes   List of changes, in the order they were made
+     * @return Map of additions to their baseline removals, in the order of the additions
+     */
+    public Map<Change, Change> match(List<Change> changes) {
+        Map<MatchKey, Bucket> buckets = new HashMap<>();
+        List<Change> additions = new ArrayList<>();
+        for (Change change : changes) {
+            if (!change.getDetails().getType().isBuiltInType()) {
+                continue;
+            }
+            if (change.getMode().equals(ChangeMode.ADDITION)) {
+                additions.add(change);
+            } else if (change.getMode().equals(ChangeMode.REMOVAL)) {
+                Optional<MatchKey> key = getKey(change);
+                if (key.isPresent()) {
+                    buckets.computeIfAbsent(key.get(), k -> new Bucket()).add(change);
+                }
+            }
+        }
+        Map<Change, Change> matches = new LinkedHashMap<>();
+        if (buckets.isEmpty()) {
+            return matches;
+        }
+        Set<Change> paired = new HashSet<>();
+        for (Change addition : additions) {
+            Optional<MatchKey> key = getKey(addition);
+            Bucket bucket = (key.isPresent() ? buckets.get(key.get()) : null);
+            if (bucket == null) {
+                continue;
+            }
+            Optional<OWLObject> property = addition.getDetails().getProperty();
+            if (mode == Mode.SINGLE) {
+                Change removal = bucket.getSingleCandidate(property);
+                if (removal != null && isAlignable(addition, removal)) {
+                    matches.put(addition, removal);
+                }
+            } else {
+                for (Change removal : bucket.getCandidates(property)) {
+                    if (!paired.contains(removal) && isAlignable(addition, removal)) {
+                        matches.put(addition, removal);
+                        paired.add(removal);
+                        break;
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Check whether the given addition can take the given removal as its baseline: annotation changes must
+     * be on the same property, while logical changes only need to be on the same subject and axiom type
+     *
+     * @param addition  Addition
+     * @param removal   Candidate removal
+     * @return true if the changes can be aligned, false otherwise
+     */
+    private boolean isAlignable(Change addition, Change removal) {
+        if (addition.isOfType(BuiltInChangeType.ANNOTATION) || addition.isOfType(BuiltInChangeType.ONTOLOGY_ANNOTATION)) {
+            return removal.getDetails().getProperty().isPresent()
+                    && removal.getDetails().getProperty().equals(addition.getDetails().getProperty());
+        }
+        return addition.isOfType(BuiltInChangeType.LOGICAL);
+    }
+
+    private Optional<MatchKey> getKey(Change change) {
+        // built-in changes have a single OWL ontology change
+        OWLOntologyChange ontChange = change.getChanges().iterator().next();
+        Object kind;
+        if (ontChange.isAxiomChange()) {
+            kind = ontChange.getAxiom().getAxiomType();
+        } else if (ontChange instanceof AnnotationChange) {
+            kind = ONTOLOGY_ANNOTATION;
+        } else {
+            return Optional.empty();
+        }
+        ChangeDetails details = change.getDetails();
+        return Optional.of(new MatchKey(change.getCommitMetadata().getCommitId(), details.getSubject(), details.getType(), kind));
+    }
+
+
+    /**
+     * Alignment mode
+     */
+    public enum Mode {
+        /**
+         * Align additions that have exactly one candidate removal
+         */
+        SINGLE,
+
+        /**
+         * Pair additions and candidate removals in the order the changes were made
+         */
+        ORDERED
+    }
+
+
+    private static final class Bucket {
+        private final List<Change> removals = new ArrayList<>();
+        private final ListMultimap<OWLObject, Change> removalsByProperty = ArrayListMultimap.create();
+        private final List<Change> removalsWithoutProperty = new ArrayList<>();
+
+        void add(Change removal) {
+            removals.add(removal);
+            Optional<OWLObject> property = removal.getDetails().getProperty();
+            if (property.isPresent()) {
+                removalsByProperty.put(property.get(), removal);
+            } else {
+                removalsWithoutProperty.add(removal);
+            }
+        }
+
+        List<Change> getCandidates(Optional<OWLObject> property) {
+            if (!property.isPresent()) {
+                return removals;
+            }
+            List<Change> withProperty = removalsByProperty.get(property.get());
+            if (removalsWithoutProperty.isEmpty()) {
+                return withProperty;
+            }
+            List<Change> candidates = new ArrayList<>(withProperty.size() + removalsWithoutProperty.size());
+            candidates.addAll(withProperty);
+            candidates.addAll(removalsWithoutProperty);
+            return candidates;
+        }
+
+        Change getSingleCandidate(Optional<OWLObject> property) {
+            if (!property.isPresent()) {
+                return (removals.size() == 1 ? removals.get(0) : null);
+            }
+            List<Change> withProperty = removalsByProperty.get(property.get());
+            if (withProperty.size() + removalsWithoutProperty.size() != 1) {
+                return null;
+            }
+            return (withProperty.isEmpty() ? removalsWithoutProperty.get(0) : withProperty.get(0));
+        }
+    }
+
+
+    private static final class MatchKey {
+        private final CommitId commitId;
+        private final OWLObject subject;
+        private final ChangeType type;
+        private final Object kind;
+        private final int hashCode;
+
+        MatchKey(CommitId commitId, OWLObject subject, ChangeType type, Object kind) {
+            this.commitId = checkNotNull(commitId);
+            this.subject = checkNotNull(subject);
+            this.type = checkNotNull(type);
+            this.kind = checkNotNull(kind);
+            this.hashCode = Objects.hashCode(commitId, subject, type, kind);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            MatchKey that = (MatchKey) o;
+            return hashCode == that.hashCode &&
+                    Objects.equal(commitId, that.commitId) &&
+                    Objects.equal(subject, that.subject) &&
+                    Objects.equal(type, that.type) &&
+                    Objects.equal(kind, that.kind);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
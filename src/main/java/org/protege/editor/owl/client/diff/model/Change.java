@@ -18,6 +18,20 @@ public interface Change extends Comparable<Change> {
      */
     ChangeId getId();
 
+    /**
+     * Get the ordinal of the change, which the diff gives to changes in the order they are added to it
+     *
+     * @return Change ordinal, or -1 if the change has not been added to a diff
+     */
+    int getOrdinal();
+
+    /**
+     * Set the ordinal of the change
+     *
+     * @param ordinal   Change ordinal
+     */
+    void setOrdinal(int ordinal);
+
     /**
      * Get the set of ontology changes involved in this change
      *
@@ -85,9 +99,11 @@ public interface Change extends Comparable<Change> {
 
     /**
      * Get the review of this change, i.e., whether it's pending review,
-     * is accepted, or is rejected, the review author, date and comment
+     * is accepted, or is rejected, the review author, date and comment.
+     * A change whose review status was set with {@link #setReviewStatus(ReviewStatus)}
+     * gets an uncommitted review without author, date or comment
      *
-     * @return Review
+     * @return Review, or null if the change has not been reviewed
      */
     Review getReview();
 
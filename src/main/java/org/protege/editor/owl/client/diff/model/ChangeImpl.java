@@ -16,6 +16,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * Stanford Center for Biomedical Informatics Research
  */
 public class ChangeImpl implements Change {
+    private static final byte NO_REVIEW = -1;
+    private static final ReviewStatus[] STATUSES = ReviewStatus.values();
     private final ChangeId id;
     private final Set<OWLOntologyChange> changes;
     private final CommitMetadata commitMetadata;
@@ -23,6 +25,10 @@ public class ChangeImpl implements Change {
     private ChangeDetails details;
     private Set<ChangeId> conflictingChanges = new HashSet<>();
     private OWLOntologyChange baselineChange;
+    private int ordinal = -1;
+    // a change reviewed in the client only has a review status, kept as its ordinal; its review is created
+    // when it is first asked for, so that reviewing changes in bulk does not allocate a review per change
+    private byte reviewStatus = NO_REVIEW;
     private Review review;
 
 
@@ -91,29 +97,49 @@ public class ChangeImpl implements Change {
         return !conflictingChanges.isEmpty();
     }
 
+    @Override
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    @Override
+    public void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
+
     @Override
     public void setReviewStatus(ReviewStatus reviewStatus) {
-        review = LogDiffManager.getDiffFactory().createReview(reviewStatus, Optional.empty(), Optional.empty(), Optional.empty(), false);
+        this.reviewStatus = (byte) reviewStatus.ordinal();
+        review = null;
     }
 
     @Override
     public ReviewStatus getReviewStatus() {
-        if(review == null) {
-            return ReviewStatus.PENDING;
+        if(review != null) {
+            return review.getStatus();
+        }
+        else if(reviewStatus != NO_REVIEW) {
+            return STATUSES[reviewStatus];
         }
         else {
-            return review.getStatus();
+            return ReviewStatus.PENDING;
         }
     }
 
     @Override
     public Review getReview() {
+        if(review == null && reviewStatus != NO_REVIEW) {
+            review = LogDiffManager.getDiffFactory().createReview(STATUSES[reviewStatus], Optional.empty(), Optional.empty(),
+                    Optional.empty(), false);
+            reviewStatus = NO_REVIEW;
+        }
         return review;
     }
 
     @Override
     public void setReview(Review review) {
         this.review = checkNotNull(review);
+        reviewStatus = NO_REVIEW;
     }
 
     @Override
@@ -138,12 +164,13 @@ public class ChangeImpl implements Change {
                 Objects.equal(details, change.details) &&
                 Objects.equal(conflictingChanges, change.conflictingChanges) &&
                 Objects.equal(baselineChange, change.baselineChange) &&
+                getReviewStatus() == change.getReviewStatus() &&
                 Objects.equal(review, change.review);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(id, changes, commitMetadata, mode, details, conflictingChanges, baselineChange, review);
+        return Objects.hashCode(id, changes, commitMetadata, mode, details, conflictingChanges, baselineChange, getReviewStatus());
     }
 
     @Override
@@ -156,6 +183,7 @@ public class ChangeImpl implements Change {
                 .add("details", details)
                 .add("conflictingChanges", conflictingChanges)
                 .add("baselineChange", baselineChange)
+                .add("reviewStatus", getReviewStatus())
                 .add("review", review)
                 .toString();
     }
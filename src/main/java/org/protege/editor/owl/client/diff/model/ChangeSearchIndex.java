@@ -0,0 +1,222 @@
+package org.protege.editor.owl.client.diff.model;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An inverted index of the text of changes: the new annotation value, the commit comment and author, and the
+ * subject label. Text is split into lower-case terms at non-alphanumeric characters. Each change is given a
+ * document number, and each term maps to the ascending list of the numbers of the changes that contain it, so
+ * that term queries read one posting list and prefix queries read the posting lists of a range of terms.
+ * Removed changes are masked out of posting lists, which are rebuilt once most of their entries are stale.
+ * The terms of a change are computed separately from adding it (see {@link #getTerms(Change)}), so that the
+ * subject labels they need can be looked up off the thread that updates the index.
+ */
+public final class ChangeSearchIndex {
+    private final Function<Change, Optional<String>> subjectLabels;
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final Map<ChangeId, Integer> documents = new HashMap<>();
+    private final List<Change> changes = new ArrayList<>();
+    private final BitSet live = new BitSet();
+
+    /**
+     * Constructor
+     *
+     * @param subjectLabels Function that gives the display label of the subject of a change, if it has one
+     */
+    public ChangeSearchIndex(Function<Change, Optional<String>> subjectLabels) {
+        this.subjectLabels = checkNotNull(subjectLabels);
+    }
+
+    /**
+     * Add the given change to the index, replacing the change with the same identifier, if any
+     *
+     * @param change    Change
+     * @param changeTerms   Terms of the change, as given by {@link #getTerms(Change)}
+     */
+    public void add(Change change, Collection<String> changeTerms) {
+        checkNotNull(changeTerms);
+        remove(change);
+        int document = changes.size();
+        changes.add(change);
+        live.set(document);
+        documents.put(change.getId(), document);
+        for (String term : changeTerms) {
+            terms.computeIfAbsent(term, t -> new Postings()).add(document);
+        }
+    }
+
+    /**
+     * Remove the given change from the index
+     *
+     * @param change    Change
+     */
+    public void remove(Change change) {
+        Integer document = documents.remove(change.getId());
+        if (document != null) {
+            changes.set(document, null);
+            live.clear(document);
+            if (documents.size() < changes.size() / 2) {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * Remove all changes from the index
+     */
+    public void clear() {
+        terms.clear();
+        documents.clear();
+        changes.clear();
+        live.clear();
+    }
+
+    /**
+     * Get the changes that match the given query. The query is a list of words separated by whitespace, all of
+     * which a change must contain. A word that ends with '*' matches any term that starts with it. Words are
+     * split into terms like the indexed text, so that, e.g., "part-of" matches changes with both "part" and "of"
+     *
+     * @param query Query
+     * @return List of matching changes, in the order they were added. The list is empty if the query has no terms
+     */
+    public List<Change> search(String query) {
+        BitSet matches = null;
+        for (String word : checkNotNull(query).trim().split("\\s+")) {
+            boolean prefix = word.endsWith("*");
+            List<String> wordTerms = tokenize(prefix ? word.substring(0, word.length() - 1) : word, new ArrayList<>());
+            for (int i = 0; i < wordTerms.size(); i++) {
+                BitSet termMatches = (prefix && i == wordTerms.size() - 1 ? matchPrefix(wordTerms.get(i)) : matchTerm(wordTerms.get(i)));
+                if (matches == null) {
+                    matches = termMatches;
+                } else {
+                    matches.and(termMatches);
+                }
+            }
+        }
+        List<Change> results = new ArrayList<>();
+        if (matches != null) {
+            matches.and(live);
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                results.add(changes.get(i));
+            }
+        }
+        return results;
+    }
+
+    private BitSet matchTerm(String term) {
+        BitSet matches = new BitSet(changes.size());
+        Postings postings = terms.get(term);
+        if (postings != null) {
+            postings.addTo(matches);
+        }
+        return matches;
+    }
+
+    private BitSet matchPrefix(String prefix) {
+        BitSet matches = new BitSet(changes.size());
+        for (Postings postings : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            postings.addTo(matches);
+        }
+        return matches;
+    }
+
+    /**
+     * Get the terms under which the given change is indexed. This only reads the change and its subject label,
+     * not the index, so it can be called away from the thread that updates the index (e.g., while computing a
+     * diff update), provided that the subject label function is thread-safe
+     *
+     * @param change    Change
+     * @return Set of terms
+     */
+    public Set<String> getTerms(Change change) {
+        List<String> terms = new ArrayList<>();
+        change.getDetails().getNewValue().ifPresent(v -> tokenize(v, terms));
+        tokenize(change.getCommitMetadata().getComment(), terms);
+        tokenize(change.getCommitMetadata().getAuthor(), terms);
+        subjectLabels.apply(change).ifPresent(l -> tokenize(l, terms));
+        return new HashSet<>(terms);
+    }
+
+    private static List<String> tokenize(String text, List<String> terms) {
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean termChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (termChar && start < 0) {
+                start = i;
+            } else if (!termChar && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Renumber the changes the index holds, dropping the entries of removed changes. Document numbers keep
+     * their order, so posting lists are rewritten in place and stay ascending
+     */
+    private void compact() {
+        int[] renumbered = new int[changes.size()];
+        List<Change> liveChanges = new ArrayList<>(documents.size());
+        for (int i = 0; i < changes.size(); i++) {
+            if (live.get(i)) {
+                renumbered[i] = liveChanges.size();
+                documents.put(changes.get(i).getId(), liveChanges.size());
+                liveChanges.add(changes.get(i));
+            } else {
+                renumbered[i] = -1;
+            }
+        }
+        terms.values().removeIf(postings -> !postings.renumber(renumbered));
+        changes.clear();
+        changes.addAll(liveChanges);
+        live.clear();
+        live.set(0, liveChanges.size());
+    }
+
+
+    /**
+     * An ascending list of document numbers
+     */
+    private static final class Postings {
+        private int[] documents = new int[2];
+        private int size;
+
+        void add(int document) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+            }
+            documents[size++] = document;
+        }
+
+        /**
+         * Replace each document number with its new number, dropping those without one
+         *
+         * @param renumbered    New number of each document, or -1 if it is dropped
+         * @return true if any document is left, false otherwise
+         */
+        boolean renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int document = renumbered[documents[i]];
+                if (document >= 0) {
+                    documents[kept++] = document;
+                }
+            }
+            size = kept;
+            return size > 0;
+        }
+
+        void addTo(BitSet bits) {
+            for (int i = 0; i < size; i++) {
+                bits.set(documents[i]);
+            }
+        }
+    }
+}
@@ -35,9 +35,5 @@ public interface CommitMetadata extends Comparable<CommitMetadata> {
      * @return Commit comment
      */
     String getComment();
-    
-    int getConflictCount();
-    
-    String getConflictAuthor();
 
 }
@@ -16,8 +16,6 @@ public final class CommitMetadataImpl implements CommitMetadata {
     private final String userId;
     private final Date date;
     private final String comment;
-    private final int conflictCount;
-    private final String conflictAuthor;
 
     /**
      * Constructor
@@ -32,17 +30,6 @@ public final class CommitMetadataImpl implements CommitMetadata {
         this.userId = checkNotNull(userId);
         this.date = checkNotNull(date);
         this.comment = checkNotNull(comment);
-        this.conflictCount = 0;
-        this.conflictAuthor = "";
-    }
-    
-    public CommitMetadataImpl(CommitId commitId, String userId, Date date, String comment, int conflictCount, String conflictAuthor) {
-        this.commitId = checkNotNull(commitId);
-        this.userId = checkNotNull(userId);
-        this.date = checkNotNull(date);
-        this.comment = checkNotNull(comment);
-        this.conflictCount = conflictCount;
-        this.conflictAuthor = conflictAuthor;
     }
 
     @Override
@@ -65,16 +52,6 @@ public final class CommitMetadataImpl implements CommitMetadata {
         return comment;
     }
 
-    @Override
-    public int getConflictCount() {
-    	return conflictCount;
-    }
-    
-    @Override
-    public String getConflictAuthor() {
-    	return conflictAuthor;
-    }
-    
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -83,24 +60,21 @@ public final class CommitMetadataImpl implements CommitMetadata {
         return Objects.equal(commitId, commit.commitId) &&
                 Objects.equal(userId, commit.userId) &&
                 Objects.equal(date, commit.date) &&
-                Objects.equal(comment, commit.comment)&&
-                Objects.equal(conflictCount, commit.conflictCount);
+                Objects.equal(comment, commit.comment);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(commitId, userId, date, comment, conflictCount);
+        return Objects.hashCode(commitId, userId, date, comment);
     }
 
     @Override
     public String toString() {
-    	
         return MoreObjects.toStringHelper(this)
                 .add("commitId", commitId)
                 .add("userId", userId)
                 .add("date", date)
                 .add("comment", comment)
-                .add((conflictCount>0 ? "conflict" : ""), (conflictCount>0 ? conflictCount : ""))
                 .toString();
     }
 
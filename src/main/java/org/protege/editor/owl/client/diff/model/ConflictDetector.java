@@ -19,4 +19,35 @@ public interface ConflictDetector {
      */
     Set<ChangeId> getConflictingChanges(Change seed, Collection<Change> searchSpace);
 
+    /**
+     * Check whether the detector looks for conflicts within the search space given to
+     * {@link #getConflictingChanges(Change, Collection)}. Detectors that keep their own index of changes
+     * (maintained through {@link #add(Change)}, {@link #remove(Change)} and {@link #clear()}) do not need
+     * the search space to be computed
+     *
+     * @return true if a search space is required, false otherwise
+     */
+    default boolean requiresSearchSpace() {
+        return true;
+    }
+
+    /**
+     * Notify the detector that the given change is now among the changes that can be in conflict
+     *
+     * @param change    Change
+     */
+    default void add(Change change) { }
+
+    /**
+     * Notify the detector that the given change is no longer among the changes that can be in conflict
+     *
+     * @param change    Change
+     */
+    default void remove(Change change) { }
+
+    /**
+     * Notify the detector that there are no longer any changes that can be in conflict
+     */
+    default void clear() { }
+
 }
@@ -0,0 +1,238 @@
+package org.protege.editor.owl.client.diff.model;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A graph of the conflicts between changes, where the changes are numbered densely and the conflicts of
+ * each change are kept in a compact adjacency array. Changes that are connected through conflicts form
+ * conflict clusters (groups), which are tracked with a union-find structure as conflicts are added, so
+ * that the size and authors of the cluster of a change are available in constant time and its members
+ * in time proportional to the cluster size. The graph is not thread-safe; it is meant to be updated and
+ * read on the thread that applies diff updates (i.e., the event dispatch thread)
+ */
+public final class ConflictGraph {
+    private static final int[] NO_EDGES = new int[0];
+    private final Map<ChangeId, Integer> ordinals = new HashMap<>();
+    private final List<Change> changes = new ArrayList<>();
+    private int[][] edges = new int[16][];
+    private int[] degree = new int[16];
+    private int[] parent = new int[16];
+    private int[] size = new int[16];
+    private int[] next = new int[16];
+    private final List<Set<String>> authors = new ArrayList<>();
+    private int clusterCount;
+
+    /**
+     * Add a conflict between the two given changes, adding the changes to the graph if necessary
+     *
+     * @param change    Change
+     * @param conflictingChange Change that conflicts with the first
+     */
+    public void addConflict(Change change, Change conflictingChange) {
+        int a = getOrAddOrdinal(checkNotNull(change)), b = getOrAddOrdinal(checkNotNull(conflictingChange));
+        if (a == b || hasEdge(a, b)) {
+            return;
+        }
+        addEdge(a, b);
+        addEdge(b, a);
+        union(a, b);
+    }
+
+    /**
+     * Check whether the given change is in the graph, i.e., whether it has any conflicts
+     *
+     * @param changeId  Change identifier
+     * @return true if the change has conflicts, false otherwise
+     */
+    public boolean contains(ChangeId changeId) {
+        return ordinals.containsKey(changeId);
+    }
+
+    /**
+     * Get the changes that conflict directly with the given change
+     *
+     * @param change    Change
+     * @return List of conflicting changes
+     */
+    public List<Change> getConflictingChanges(Change change) {
+        Integer ordinal = ordinals.get(change.getId());
+        if (ordinal == null) {
+            return Collections.emptyList();
+        }
+        int[] adjacent = edges[ordinal];
+        List<Change> list = new ArrayList<>(degree[ordinal]);
+        for (int i = 0; i < degree[ordinal]; i++) {
+            list.add(changes.get(adjacent[i]));
+        }
+        return list;
+    }
+
+    /**
+     * Get the changes in the conflict cluster of the given change, that is, the changes connected to it
+     * through conflicts, including the change itself
+     *
+     * @param change    Change
+     * @return List of changes in the cluster, or an empty list if the change has no conflicts
+     */
+    public List<Change> getCluster(Change change) {
+        Integer ordinal = ordinals.get(change.getId());
+        if (ordinal == null) {
+            return Collections.emptyList();
+        }
+        List<Change> cluster = new ArrayList<>(size[find(ordinal)]);
+        int member = ordinal;
+        do {
+            cluster.add(changes.get(member));
+            member = next[member];
+        } while (member != ordinal);
+        return cluster;
+    }
+
+    /**
+     * Get the number of changes in the conflict cluster of the given change
+     *
+     * @param change    Change
+     * @return Cluster size, or 0 if the change has no conflicts
+     */
+    public int getClusterSize(Change change) {
+        Integer ordinal = ordinals.get(change.getId());
+        return (ordinal == null ? 0 : size[find(ordinal)]);
+    }
+
+    /**
+     * Get the authors of the changes in the conflict cluster of the given change
+     *
+     * @param change    Change
+     * @return Unmodifiable set of author names, or an empty set if the change has no conflicts
+     */
+    public Set<String> getClusterAuthors(Change change) {
+        Integer ordinal = ordinals.get(change.getId());
+        return (ordinal == null ? Collections.emptySet() : Collections.unmodifiableSet(authors.get(find(ordinal))));
+    }
+
+    /**
+     * Get all conflict clusters, each given by its changes
+     *
+     * @return List of conflict clusters
+     */
+    public List<List<Change>> getClusters() {
+        List<List<Change>> clusters = new ArrayList<>(clusterCount);
+        for (int i = 0; i < changes.size(); i++) {
+            if (parent[i] == i) {
+                clusters.add(getCluster(changes.get(i)));
+            }
+        }
+        return clusters;
+    }
+
+    /**
+     * Get the number of conflict clusters
+     *
+     * @return Number of clusters
+     */
+    public int getClusterCount() {
+        return clusterCount;
+    }
+
+    /**
+     * Remove all changes and conflicts
+     */
+    public void clear() {
+        ordinals.clear();
+        changes.clear();
+        authors.clear();
+        Arrays.fill(edges, null);
+        clusterCount = 0;
+    }
+
+    private int getOrAddOrdinal(Change change) {
+        Integer ordinal = ordinals.get(change.getId());
+        if (ordinal != null) {
+            return ordinal;
+        }
+        int n = changes.size();
+        if (n == parent.length) {
+            int capacity = n * 2;
+            edges = Arrays.copyOf(edges, capacity);
+            degree = Arrays.copyOf(degree, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            size = Arrays.copyOf(size, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        ordinals.put(change.getId(), n);
+        changes.add(change);
+        edges[n] = NO_EDGES;
+        degree[n] = 0;
+        parent[n] = n;
+        size[n] = 1;
+        next[n] = n;
+        Set<String> clusterAuthors = new HashSet<>();
+        clusterAuthors.add(change.getCommitMetadata().getAuthor());
+        authors.add(clusterAuthors);
+        clusterCount++;
+        return n;
+    }
+
+    private boolean hasEdge(int a, int b) {
+        // scan the smaller of the two adjacency arrays
+        int from = (degree[a] <= degree[b] ? a : b), to = (from == a ? b : a);
+        int[] adjacent = edges[from];
+        for (int i = 0; i < degree[from]; i++) {
+            if (adjacent[i] == to) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addEdge(int from, int to) {
+        int[] adjacent = edges[from];
+        if (degree[from] == adjacent.length) {
+            adjacent = Arrays.copyOf(adjacent, Math.max(4, adjacent.length * 2));
+            edges[from] = adjacent;
+        }
+        adjacent[degree[from]++] = to;
+    }
+
+    private int find(int ordinal) {
+        int root = ordinal;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (parent[ordinal] != root) {
+            int p = parent[ordinal];
+            parent[ordinal] = root;
+            ordinal = p;
+        }
+        return root;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a), rootB = find(b);
+        if (rootA == rootB) {
+            return;
+        }
+        if (size[rootA] < size[rootB]) {
+            int t = rootA; rootA = rootB; rootB = t;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+        authors.get(rootA).addAll(authors.get(rootB));
+        authors.set(rootB, null);
+        // splice the member rings of both clusters together
+        int t = next[rootA]; next[rootA] = next[rootB]; next[rootB] = t;
+        clusterCount--;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("changes", changes.size())
+                .add("clusters", clusterCount)
+                .toString();
+    }
+}
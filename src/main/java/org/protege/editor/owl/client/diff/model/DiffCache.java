@@ -0,0 +1,673 @@
+package org.protege.editor.owl.client.diff.model;
+
+import com.google.common.io.CountingInputStream;
+import edu.stanford.protege.metaproject.api.UserId;
+import org.protege.editor.owl.client.diff.DiffFactory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.RevisionMetadata;
+import org.semanticweb.owlapi.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An on-disk cache of the changes computed by {@link LogDiff}, with one file per project. A cache file
+ * holds the changes (with their details, baseline alignments, conflicts and committed reviews) computed
+ * up to some revision of the project history, so that opening a project only requires processing the
+ * revisions committed since. Ontology changes are stored by their content (axiom, annotation, import or
+ * ontology identifier), and bound to the active ontology when loaded.
+ *
+ * A cache file is a log of segments, each holding what one diff update computed: the new commits and
+ * changes, and the removals, alignments and conflicts involving earlier changes. After an update only its
+ * segment is appended, so the cost of saving is proportional to the size of the update rather than to the
+ * size of the history. Once a file has more than {@value #MAX_SEGMENTS} segments, they are replaced by a
+ * single one. A segment left incomplete by an interrupted write is ignored, and overwritten by the next
+ * one. All file access happens on a single background thread.
+ */
+public final class DiffCache {
+    private static final Logger logger = LoggerFactory.getLogger(DiffCache.class.getName());
+    private static final int MAGIC = 0x52484443, VERSION = 3, MAX_SEGMENTS = 64;
+    private static final byte ADD_AXIOM = 0, REMOVE_AXIOM = 1, ADD_IMPORT = 2, REMOVE_IMPORT = 3,
+            ADD_ONTOLOGY_ANNOTATION = 4, REMOVE_ONTOLOGY_ANNOTATION = 5, SET_ONTOLOGY_ID = 6;
+    private final File directory;
+    private final DiffFactory diffFactory = LogDiffManager.getDiffFactory();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Revision history cache writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // accessed on the writer thread only
+    private final Map<String, FileState> fileStates = new HashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param directory Directory where cache files are kept
+     */
+    public DiffCache(File directory) {
+        this.directory = checkNotNull(directory);
+    }
+
+    /**
+     * Get the default cache directory, which is the {@code revision-history} folder within the Protege
+     * folder in the user's home directory
+     *
+     * @return Cache directory
+     */
+    public static File getDefaultDirectory() {
+        return new File(new File(System.getProperty("user.home"), ".Protege"), "revision-history");
+    }
+
+    /**
+     * Load the cached changes of the given project, provided they were computed from (a prefix of) the given
+     * change history. This waits for pending writes to complete, so it should not be called on the event
+     * dispatch thread
+     *
+     * @param projectId Project identifier
+     * @param history   Snapshot of the change history of the project, holding all revisions after the base revision
+     * @param ontology  Ontology that the loaded changes should refer to
+     * @return Cached changes, or an empty optional if there are none, or they are stale or unreadable
+     */
+    public Optional<Entry> load(String projectId, HistorySnapshot history, OWLOntology ontology) {
+        checkNotNull(projectId); checkNotNull(history); checkNotNull(ontology);
+        try {
+            Callable<Optional<Entry>> task = () -> read(projectId, history, ontology);
+            return writer.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            logger.warn("Unable to read revision history cache of project " + projectId, e.getCause());
+            return Optional.empty();
+        }
+    }
+
+    private Optional<Entry> read(String projectId, HistorySnapshot history, OWLOntology ontology) {
+        fileStates.remove(projectId);
+        Optional<Replay> replay = replay(projectId, ontology);
+        if (!replay.isPresent()) {
+            return Optional.empty();
+        }
+        Replay r = replay.get();
+        if (!isPrefixOf(history, r.base, r.revision, r.lastAuthor, r.lastDate)) {
+            logger.info("Discarding revision history cache of project " + projectId + " since the project history has changed");
+            return Optional.empty();
+        }
+        fileStates.put(projectId, new FileState(r.revision, r.length, r.segments));
+        List<Change> unmatchedChanges = new ArrayList<>();
+        for (ChangeId id : r.unmatched) {
+            Change change = r.changes.get(id);
+            if (change != null) {
+                unmatchedChanges.add(change);
+            }
+        }
+        return Optional.of(new Entry(r.revision, new ArrayList<>(r.commits.values()), new ArrayList<>(r.changes.values()),
+                unmatchedChanges));
+    }
+
+    /**
+     * Replay the segments of the cache file of the given project, up to the first incomplete or out of
+     * sequence segment
+     *
+     * @param projectId Project identifier
+     * @param ontology  Ontology that the loaded changes should refer to
+     * @return Replayed changes, or an empty optional if the file is missing, unreadable or holds no segments
+     */
+    private Optional<Replay> replay(String projectId, OWLOntology ontology) {
+        File file = getFile(projectId);
+        if (!file.isFile()) {
+            return Optional.empty();
+        }
+        try (CountingInputStream counter = new CountingInputStream(new BufferedInputStream(new FileInputStream(file)));
+             DataInputStream in = new DataInputStream(counter)) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(projectId)) {
+                return Optional.empty();
+            }
+            Replay replay = new Replay(DocumentRevision.create(in.readInt()));
+            replay.length = counter.getCount();
+            byte[] bytes;
+            while ((bytes = readSegmentBytes(in)) != null) {
+                try (ObjectInputStream segmentIn = new ObjectInputStream(new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(bytes))))) {
+                    if (!readSegment(segmentIn, replay, ontology)) {
+                        break;
+                    }
+                }
+                replay.length = counter.getCount();
+                replay.segments++;
+            }
+            return (replay.revision != null ? Optional.of(replay) : Optional.empty());
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            logger.warn("Unable to read revision history cache " + file, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Read the next length-prefixed segment
+     *
+     * @param in    Input stream
+     * @return Segment bytes, or null if there are no more complete segments
+     */
+    private static byte[] readSegmentBytes(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length <= 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return bytes;
+        } catch (EOFException e) {
+            return null; // end of file, or a segment left incomplete by an interrupted write
+        }
+    }
+
+    private boolean readSegment(ObjectInputStream in, Replay replay, OWLOntology ontology) throws IOException, ClassNotFoundException {
+        boolean snapshot = in.readBoolean();
+        int startRevision = in.readInt();
+        if (snapshot) {
+            replay.clear();
+        } else if (replay.revision == null || LogDiff.getRevisionNumber(replay.revision) != startRevision) {
+            return false;
+        }
+        replay.revision = DocumentRevision.create(in.readInt());
+        replay.lastAuthor = in.readUTF();
+        replay.lastDate = in.readLong();
+        for (int i = 0, n = in.readInt(); i < n; i++) {
+            CommitMetadata commit = diffFactory.createCommitMetadata(diffFactory.createCommitId(in.readUTF()), in.readUTF(),
+                    new Date(in.readLong()), (String) in.readObject());
+            replay.commits.put(commit.getCommitId().get(), commit);
+        }
+        for (int i = 0, n = in.readInt(); i < n; i++) {
+            Change change = readChange(in, replay.commits, ontology);
+            replay.changes.put(change.getId(), change);
+        }
+        for (int i = 0, n = in.readInt(); i < n; i++) {
+            replay.changes.remove(diffFactory.createChangeId(in.readUTF()));
+        }
+        for (int i = 0, n = in.readInt(); i < n; i++) {
+            Change change = replay.changes.get(diffFactory.createChangeId(in.readUTF()));
+            OWLOntologyChange baseline = readOntologyChange(in, ontology);
+            if (change != null) {
+                change.setBaselineChange(baseline);
+                change.setMode(ChangeMode.ALIGNED);
+            }
+        }
+        for (int i = 0, n = in.readInt(); i < n; i++) {
+            Change a = replay.changes.get(diffFactory.createChangeId(in.readUTF()));
+            Change b = replay.changes.get(diffFactory.createChangeId(in.readUTF()));
+            if (a != null && b != null) {
+                a.addConflictingChange(b.getId());
+                b.addConflictingChange(a.getId());
+            }
+        }
+        replay.unmatched = new ArrayList<>();
+        for (int i = 0, n = in.readInt(); i < n; i++) {
+            replay.unmatched.add(diffFactory.createChangeId(in.readUTF()));
+        }
+        return true;
+    }
+
+    /**
+     * Capture what the given update computed for the given project, so that it can be appended to the cache
+     * with {@link #append(Segment)} once the update has been applied. This is meant to be called on the thread
+     * that computed the update, before the update is applied
+     *
+     * @param projectId Project identifier
+     * @param history   Snapshot of the change history of the project, holding the end revision of the update
+     * @param ontology  Ontology that the changes refer to
+     * @param startRevision Last revision whose changes the update builds on, or null if the update holds all
+     *                      the changes of the project
+     * @param update    Diff update
+     * @return Cache segment, or an empty optional if the update processed no new revisions
+     */
+    Optional<Segment> createSegment(String projectId, HistorySnapshot history, OWLOntology ontology, DocumentRevision startRevision,
+                                    DiffUpdate update) {
+        List<CommitMetadata> commits = update.getComputedCommits();
+        if (commits.isEmpty() || !update.getEndRevision().isPresent()) {
+            return Optional.empty();
+        }
+        DocumentRevision endRevision = update.getEndRevision().get();
+        RevisionMetadata metadata = history.getMetadataForRevision(endRevision);
+        List<ChangeRecord> records = update.getComputedChanges().stream().map(ChangeRecord::new).collect(Collectors.toList());
+        Map<ChangeId, OWLOntologyChange> alignments = new LinkedHashMap<>();
+        update.getAlignments().forEach((change, baseline) -> alignments.put(change.getId(), baseline));
+        List<ChangeId> unmatched = update.getUnmatchedChanges().stream().map(Change::getId).collect(Collectors.toList());
+        return Optional.of(new Segment(projectId, ontology, history.getBaseRevision(), startRevision, endRevision,
+                metadata.getAuthorId(), metadata.getDate().getTime(), new ArrayList<>(commits), records,
+                new ArrayList<>(update.getRemovedChanges()), alignments, new ArrayList<>(update.getConflicts()), unmatched));
+    }
+
+    /**
+     * Append the given segment to the cache file of its project in the background. A segment that builds on
+     * changes other than those in the file (e.g., because an earlier segment could not be written) is not
+     * appended, and the file is left as it is
+     *
+     * @param segment   Cache segment
+     */
+    public void append(Segment segment) {
+        checkNotNull(segment);
+        writer.execute(() -> write(segment));
+    }
+
+    private void write(Segment segment) {
+        String projectId = segment.projectId;
+        File file = getFile(projectId);
+        try {
+            if (segment.startRevision == null) {
+                writeSnapshot(segment);
+                return;
+            }
+            FileState state = fileStates.get(projectId);
+            if (state == null || !state.revision.equals(segment.startRevision)) {
+                logger.debug("Revision history cache of project " + projectId + " is out of step with the changes; not appending");
+                return;
+            }
+            byte[] bytes = serialize(segment);
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(state.length); // drop an incomplete segment, if any
+                ByteBuffer buffer = ByteBuffer.allocate(4 + bytes.length);
+                buffer.putInt(bytes.length).put(bytes).flip();
+                channel.position(state.length);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            FileState newState = new FileState(segment.endRevision, state.length + 4 + bytes.length, state.segments + 1);
+            fileStates.put(projectId, newState);
+            if (newState.segments > MAX_SEGMENTS) {
+                compact(segment);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unable to write revision history cache " + file, e);
+            fileStates.remove(projectId); // the valid part of the file is still loaded next time
+        }
+    }
+
+    /**
+     * Replace the cache file of the project of the given segment with one holding all changes in a single segment
+     *
+     * @param segment   Last segment appended
+     */
+    private void compact(Segment segment) throws IOException {
+        Optional<Replay> replay = replay(segment.projectId, segment.ontology);
+        if (replay.isPresent() && replay.get().revision.equals(segment.endRevision)) {
+            writeSnapshot(replay.get().toSegment(segment.projectId, segment.ontology));
+        }
+    }
+
+    /**
+     * Replace the cache file of the project of the given segment with one holding just that segment, which
+     * must hold all changes of the project
+     *
+     * @param segment   Cache segment
+     */
+    private void writeSnapshot(Segment segment) throws IOException {
+        File file = getFile(segment.projectId);
+        File tmp = new File(directory, file.getName() + ".tmp");
+        fileStates.remove(segment.projectId);
+        try {
+            Files.createDirectories(directory.toPath());
+            byte[] bytes = serialize(segment);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(segment.projectId);
+                out.writeInt(LogDiff.getRevisionNumber(segment.base));
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            if (tmp.exists() && !tmp.delete()) {
+                logger.warn("Unable to delete " + tmp);
+            }
+        }
+        fileStates.put(segment.projectId, new FileState(segment.endRevision, file.length(), 1));
+    }
+
+    private byte[] serialize(Segment segment) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new GZIPOutputStream(bytes)))) {
+            out.writeBoolean(segment.startRevision == null);
+            out.writeInt(segment.startRevision == null ? 0 : LogDiff.getRevisionNumber(segment.startRevision));
+            out.writeInt(LogDiff.getRevisionNumber(segment.endRevision));
+            out.writeUTF(segment.lastAuthor);
+            out.writeLong(segment.lastDate);
+            out.writeInt(segment.commits.size());
+            for (CommitMetadata commit : segment.commits) {
+                out.writeUTF(commit.getCommitId().get());
+                out.writeUTF(commit.getAuthor());
+                out.writeLong(commit.getDate().getTime());
+                out.writeObject(commit.getComment());
+            }
+            out.writeInt(segment.records.size());
+            for (ChangeRecord record : segment.records) {
+                writeChange(out, record);
+            }
+            out.writeInt(segment.removedChanges.size());
+            for (ChangeId id : segment.removedChanges) {
+                out.writeUTF(id.get());
+            }
+            out.writeInt(segment.alignments.size());
+            for (Map.Entry<ChangeId, OWLOntologyChange> alignment : segment.alignments.entrySet()) {
+                out.writeUTF(alignment.getKey().get());
+                writeOntologyChange(out, alignment.getValue());
+            }
+            out.writeInt(segment.conflicts.size());
+            for (ChangeId[] conflict : segment.conflicts) {
+                out.writeUTF(conflict[0].get());
+                out.writeUTF(conflict[1].get());
+            }
+            out.writeInt(segment.unmatchedChanges.size());
+            for (ChangeId id : segment.unmatchedChanges) {
+                out.writeUTF(id.get());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private boolean isPrefixOf(HistorySnapshot history, DocumentRevision base, DocumentRevision revision, String lastAuthor, long lastDate) {
+        if (!history.getBaseRevision().equals(base) || !history.contains(revision)) {
+            return false;
+        }
+        RevisionMetadata metadata = history.getMetadataForRevision(revision);
+        return metadata != null && metadata.getAuthorId().equals(lastAuthor) && metadata.getDate().getTime() == lastDate;
+    }
+
+    private void writeChange(ObjectOutputStream out, ChangeRecord record) throws IOException {
+        Change change = record.change;
+        ChangeDetails details = change.getDetails();
+        out.writeUTF(change.getId().get());
+        out.writeByte(record.mode.ordinal());
+        out.writeUTF(change.getCommitMetadata().getCommitId().get());
+        out.writeUTF(details.getRevisionTag().getTag());
+        out.writeObject(details.getSubject());
+        writeChangeType(out, details.getType());
+        out.writeObject(details.getProperty().orElse(null));
+        out.writeObject(details.getNewValue().orElse(null));
+        out.writeInt(change.getChanges().size());
+        for (OWLOntologyChange ontChange : change.getChanges()) {
+            writeOntologyChange(out, ontChange);
+        }
+        out.writeBoolean(record.baselineChange != null);
+        if (record.baselineChange != null) {
+            writeOntologyChange(out, record.baselineChange);
+        }
+        out.writeInt(record.conflictingChanges.length);
+        for (ChangeId id : record.conflictingChanges) {
+            out.writeUTF(id.get());
+        }
+        out.writeBoolean(record.review != null);
+        if (record.review != null) {
+            out.writeByte(record.review.getStatus().ordinal());
+            out.writeObject(record.review.getAuthor().orElse(null));
+            out.writeObject(record.review.getDate().orElse(null));
+            out.writeObject(record.review.getComment().orElse(null));
+        }
+    }
+
+    private Change readChange(ObjectInputStream in, Map<String, CommitMetadata> commits, OWLOntology ontology) throws IOException, ClassNotFoundException {
+        ChangeId id = diffFactory.createChangeId(in.readUTF());
+        ChangeMode mode = ChangeMode.values()[in.readByte()];
+        String commitId = in.readUTF();
+        CommitMetadata commitMetadata = commits.get(commitId);
+        if (commitMetadata == null) {
+            throw new StreamCorruptedException("Unknown commit " + commitId + " of change " + id.get());
+        }
+        RevisionTag revisionTag = diffFactory.createRevisionTag(in.readUTF());
+        OWLObject subject = (OWLObject) in.readObject();
+        ChangeType type = readChangeType(in);
+        Optional<OWLObject> property = Optional.ofNullable((OWLObject) in.readObject());
+        Optional<String> newValue = Optional.ofNullable((String) in.readObject());
+        ChangeDetails details = diffFactory.createChangeDetails(revisionTag, subject, type, property, newValue);
+        Set<OWLOntologyChange> ontChanges = new HashSet<>();
+        for (int i = 0, n = in.readInt(); i < n; i++) {
+            ontChanges.add(readOntologyChange(in, ontology));
+        }
+        Change change = diffFactory.createChange(id, ontChanges, details, commitMetadata, mode);
+        if (in.readBoolean()) {
+            change.setBaselineChange(readOntologyChange(in, ontology));
+        }
+        for (int i = 0, n = in.readInt(); i < n; i++) {
+            change.addConflictingChange(diffFactory.createChangeId(in.readUTF()));
+        }
+        if (in.readBoolean()) {
+            ReviewStatus status = ReviewStatus.values()[in.readByte()];
+            Optional<UserId> author = Optional.ofNullable((UserId) in.readObject());
+            Optional<Date> date = Optional.ofNullable((Date) in.readObject());
+            Optional<String> comment = Optional.ofNullable((String) in.readObject());
+            change.setReview(diffFactory.createReview(status, author, date, comment, true));
+        }
+        return change;
+    }
+
+    private void writeChangeType(ObjectOutputStream out, ChangeType type) throws IOException {
+        out.writeBoolean(type.isBuiltInType());
+        if (type.isBuiltInType()) {
+            out.writeByte(((BuiltInChangeType) type).ordinal());
+        } else {
+            out.writeUTF(type.getDisplayName());
+            out.writeBoolean(type.getDisplayColor().isPresent());
+            if (type.getDisplayColor().isPresent()) {
+                out.writeInt(type.getDisplayColor().get().getRGB());
+            }
+        }
+    }
+
+    private ChangeType readChangeType(ObjectInputStream in) throws IOException {
+        if (in.readBoolean()) {
+            return BuiltInChangeType.values()[in.readByte()];
+        }
+        String displayName = in.readUTF();
+        Optional<Color> color = (in.readBoolean() ? Optional.of(new Color(in.readInt(), true)) : Optional.empty());
+        return new CustomChangeType(displayName, color);
+    }
+
+    private void writeOntologyChange(ObjectOutputStream out, OWLOntologyChange change) throws IOException {
+        if (change.isAxiomChange()) {
+            out.writeByte(change.isAddAxiom() ? ADD_AXIOM : REMOVE_AXIOM);
+            out.writeObject(change.getAxiom());
+        } else if (change instanceof ImportChange) {
+            out.writeByte(change instanceof AddImport ? ADD_IMPORT : REMOVE_IMPORT);
+            out.writeObject(((ImportChange) change).getImportDeclaration());
+        } else if (change instanceof AnnotationChange) {
+            out.writeByte(change instanceof AddOntologyAnnotation ? ADD_ONTOLOGY_ANNOTATION : REMOVE_ONTOLOGY_ANNOTATION);
+            out.writeObject(((AnnotationChange) change).getAnnotation());
+        } else if (change instanceof SetOntologyID) {
+            out.writeByte(SET_ONTOLOGY_ID);
+            out.writeObject(((SetOntologyID) change).getNewOntologyID());
+        } else {
+            throw new NotSerializableException("Unhandled ontology change type for change: " + change);
+        }
+    }
+
+    private OWLOntologyChange readOntologyChange(ObjectInputStream in, OWLOntology ontology) throws IOException, ClassNotFoundException {
+        byte kind = in.readByte();
+        Object content = in.readObject();
+        switch (kind) {
+            case ADD_AXIOM: return new AddAxiom(ontology, (OWLAxiom) content);
+            case REMOVE_AXIOM: return new RemoveAxiom(ontology, (OWLAxiom) content);
+            case ADD_IMPORT: return new AddImport(ontology, (OWLImportsDeclaration) content);
+            case REMOVE_IMPORT: return new RemoveImport(ontology, (OWLImportsDeclaration) content);
+            case ADD_ONTOLOGY_ANNOTATION: return new AddOntologyAnnotation(ontology, (OWLAnnotation) content);
+            case REMOVE_ONTOLOGY_ANNOTATION: return new RemoveOntologyAnnotation(ontology, (OWLAnnotation) content);
+            case SET_ONTOLOGY_ID: return new SetOntologyID(ontology, (OWLOntologyID) content);
+            default: throw new StreamCorruptedException("Unknown ontology change kind: " + kind);
+        }
+    }
+
+    private File getFile(String projectId) {
+        StringBuilder name = new StringBuilder();
+        for (char c : projectId.toCharArray()) {
+            name.append(Character.isLetterOrDigit(c) || c == '-' || c == '_' ? c : '_');
+        }
+        return new File(directory, name.append('-').append(Integer.toHexString(projectId.hashCode())).append(".cache").toString());
+    }
+
+
+    /**
+     * The state of a change at the time it is saved; the remaining parts of a change do not change once
+     * it has been computed
+     */
+    private static final class ChangeRecord {
+        private final Change change;
+        private final ChangeMode mode;
+        private final OWLOntologyChange baselineChange;
+        private final ChangeId[] conflictingChanges;
+        private final Review review;
+
+        ChangeRecord(Change change) {
+            this.change = change;
+            this.mode = change.getMode();
+            this.baselineChange = change.getBaselineChange().orElse(null);
+            this.conflictingChanges = change.getConflictingChanges().toArray(new ChangeId[0]);
+            // uncommitted reviews are local to the session, and not cached
+            Review review = change.getReview();
+            this.review = (review != null && review.isCommitted() ? review : null);
+        }
+    }
+
+
+    /**
+     * What a diff update computed for a project, captured when the update was computed so that it can be
+     * written to the cache file of the project in the background
+     */
+    static final class Segment {
+        private final String projectId;
+        private final OWLOntology ontology;
+        private final DocumentRevision base, startRevision, endRevision;
+        private final String lastAuthor;
+        private final long lastDate;
+        private final List<CommitMetadata> commits;
+        private final List<ChangeRecord> records;
+        private final List<ChangeId> removedChanges;
+        private final Map<ChangeId, OWLOntologyChange> alignments;
+        private final List<ChangeId[]> conflicts;
+        private final List<ChangeId> unmatchedChanges;
+
+        private Segment(String projectId, OWLOntology ontology, DocumentRevision base, DocumentRevision startRevision,
+                        DocumentRevision endRevision, String lastAuthor, long lastDate, List<CommitMetadata> commits,
+                        List<ChangeRecord> records, List<ChangeId> removedChanges, Map<ChangeId, OWLOntologyChange> alignments,
+                        List<ChangeId[]> conflicts, List<ChangeId> unmatchedChanges) {
+            this.projectId = checkNotNull(projectId);
+            this.ontology = checkNotNull(ontology);
+            this.base = checkNotNull(base);
+            this.startRevision = startRevision;
+            this.endRevision = checkNotNull(endRevision);
+            this.lastAuthor = checkNotNull(lastAuthor);
+            this.lastDate = lastDate;
+            this.commits = checkNotNull(commits);
+            this.records = checkNotNull(records);
+            this.removedChanges = checkNotNull(removedChanges);
+            this.alignments = checkNotNull(alignments);
+            this.conflicts = checkNotNull(conflicts);
+            this.unmatchedChanges = checkNotNull(unmatchedChanges);
+        }
+    }
+
+
+    /**
+     * The state of a cache file being read: the changes of the segments read so far
+     */
+    private static final class Replay {
+        private final DocumentRevision base;
+        private final Map<String, CommitMetadata> commits = new LinkedHashMap<>();
+        private final Map<ChangeId, Change> changes = new LinkedHashMap<>();
+        private List<ChangeId> unmatched = new ArrayList<>();
+        private DocumentRevision revision;
+        private String lastAuthor;
+        private long lastDate, length;
+        private int segments;
+
+        Replay(DocumentRevision base) {
+            this.base = checkNotNull(base);
+        }
+
+        void clear() {
+            commits.clear();
+            changes.clear();
+            unmatched = new ArrayList<>();
+            segments = 0;
+        }
+
+        Segment toSegment(String projectId, OWLOntology ontology) {
+            List<ChangeRecord> records = changes.values().stream().map(ChangeRecord::new).collect(Collectors.toList());
+            return new Segment(projectId, ontology, base, null, revision, lastAuthor, lastDate, new ArrayList<>(commits.values()),
+                    records, Collections.emptyList(), Collections.emptyMap(), Collections.emptyList(), unmatched);
+        }
+    }
+
+
+    /**
+     * The part of a cache file known to be valid, as last read or written
+     */
+    private static final class FileState {
+        private final DocumentRevision revision;
+        private final long length;
+        private final int segments;
+
+        FileState(DocumentRevision revision, long length, int segments) {
+            this.revision = checkNotNull(revision);
+            this.length = length;
+            this.segments = segments;
+        }
+    }
+
+
+    /**
+     * Changes loaded from the cache
+     */
+    public static final class Entry {
+        private final DocumentRevision revision;
+        private final List<CommitMetadata> commits;
+        private final List<Change> changes;
+        private final List<Change> unmatchedChanges;
+
+        private Entry(DocumentRevision revision, List<CommitMetadata> commits, List<Change> changes, List<Change> unmatchedChanges) {
+            this.revision = checkNotNull(revision);
+            this.commits = checkNotNull(commits);
+            this.changes = checkNotNull(changes);
+            this.unmatchedChanges = checkNotNull(unmatchedChanges);
+        }
+
+        /**
+         * Get the last revision whose changes were cached
+         *
+         * @return Document revision
+         */
+        public DocumentRevision getRevision() {
+            return revision;
+        }
+
+        public List<CommitMetadata> getCommits() {
+            return commits;
+        }
+
+        public List<Change> getChanges() {
+            return changes;
+        }
+
+        public List<Change> getUnmatchedChanges() {
+            return unmatchedChanges;
+        }
+    }
+}
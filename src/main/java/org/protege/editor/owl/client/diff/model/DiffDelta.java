@@ -0,0 +1,90 @@
+package org.protege.editor.owl.client.diff.model;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The changes that were added, removed or modified (e.g., aligned, found to be in conflict, or reviewed) by an
+ * update of the diff, so that views can update the affected rows rather than reload all changes. A reset delta
+ * stands for an update that replaced all changes, after which views should reload
+ */
+public final class DiffDelta {
+    private static final DiffDelta RESET = new DiffDelta(true, Collections.emptySet(), Collections.emptySet(), Collections.emptySet());
+    private final boolean reset;
+    private final Set<Change> addedChanges, removedChanges, modifiedChanges;
+
+    private DiffDelta(boolean reset, Set<Change> addedChanges, Set<Change> removedChanges, Set<Change> modifiedChanges) {
+        this.reset = reset;
+        this.addedChanges = Collections.unmodifiableSet(addedChanges);
+        this.removedChanges = Collections.unmodifiableSet(removedChanges);
+        this.modifiedChanges = Collections.unmodifiableSet(modifiedChanges);
+    }
+
+    /**
+     * Create a delta
+     *
+     * @param addedChanges  Changes added
+     * @param removedChanges    Changes removed
+     * @param modifiedChanges   Changes modified, other than those added
+     * @return Diff delta
+     */
+    public static DiffDelta create(Collection<Change> addedChanges, Collection<Change> removedChanges, Collection<Change> modifiedChanges) {
+        return new DiffDelta(false, new LinkedHashSet<>(checkNotNull(addedChanges)), new LinkedHashSet<>(checkNotNull(removedChanges)),
+                new LinkedHashSet<>(checkNotNull(modifiedChanges)));
+    }
+
+    /**
+     * Create a delta where the given changes were modified
+     *
+     * @param modifiedChanges   Changes modified
+     * @return Diff delta
+     */
+    public static DiffDelta modified(Collection<Change> modifiedChanges) {
+        return create(Collections.emptySet(), Collections.emptySet(), modifiedChanges);
+    }
+
+    /**
+     * Get the delta that stands for the replacement of all changes
+     *
+     * @return Reset delta
+     */
+    public static DiffDelta reset() {
+        return RESET;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    public Set<Change> getAddedChanges() {
+        return addedChanges;
+    }
+
+    public Set<Change> getRemovedChanges() {
+        return removedChanges;
+    }
+
+    public Set<Change> getModifiedChanges() {
+        return modifiedChanges;
+    }
+
+    public boolean isEmpty() {
+        return !reset && addedChanges.isEmpty() && removedChanges.isEmpty() && modifiedChanges.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("reset", reset)
+                .add("added", addedChanges.size())
+                .add("removed", removedChanges.size())
+                .add("modified", modifiedChanges.size())
+                .toString();
+    }
+}
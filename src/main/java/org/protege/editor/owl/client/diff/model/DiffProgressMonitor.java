@@ -0,0 +1,40 @@
+package org.protege.editor.owl.client.diff.model;
+
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+
+/**
+ * Receives progress notifications while a diff update is computed, and tells the computation whether
+ * it should stop early
+ */
+public interface DiffProgressMonitor {
+
+    /**
+     * A monitor that ignores progress and never cancels
+     */
+    DiffProgressMonitor NONE = new DiffProgressMonitor() {
+        @Override
+        public void revisionProcessed(DocumentRevision revision, int processed, int total) { }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    /**
+     * Notify that the changes of the given revision have been processed
+     *
+     * @param revision  Document revision
+     * @param processed Number of revisions processed so far
+     * @param total Total number of revisions to process
+     */
+    void revisionProcessed(DocumentRevision revision, int processed, int total);
+
+    /**
+     * Check whether the computation should be abandoned
+     *
+     * @return true if the computation has been cancelled, false otherwise
+     */
+    boolean isCancelled();
+
+}
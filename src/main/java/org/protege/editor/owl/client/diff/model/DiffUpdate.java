@@ -0,0 +1,265 @@
+package org.protege.editor.owl.client.diff.model;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The outcome of processing a range of revisions, staged so that it can be computed away from the
+ * change indices of a {@link LogDiff} and then applied to them in one step. An update records the
+ * changes to add, the (previously added or staged) changes that were aligned as previous values of
+ * other changes and must be removed, the alignments themselves, and the conflicts found.
+ */
+public final class DiffUpdate {
+    private final VersionedOWLOntology document;
+    private final VersionedOWLOntology startDocument;
+    private final DocumentRevision startRevision;
+    private final boolean rebuild;
+    private final List<CommitMetadata> commits = new ArrayList<>();
+    private final Map<ChangeId, Change> addedChanges = new LinkedHashMap<>();
+    private final Multimap<OWLObject, Change> addedChangesBySubject = LinkedHashMultimap.create();
+    private final Set<ChangeId> removedChanges = new HashSet<>();
+    private final Map<Change, OWLOntologyChange> alignments = new LinkedHashMap<>();
+    private final List<ChangeId[]> conflicts = new ArrayList<>();
+    private final List<Change> unmatchedChanges;
+    private DocumentRevision endRevision;
+    private int cachedCommitCount, cachedChangeCount;
+    private final Map<ChangeId, Set<String>> searchTerms = new HashMap<>();
+    private DiffCache.Segment cacheSegment;
+
+    /**
+     * Constructor
+     *
+     * @param document  Versioned ontology document the update was computed from, or null if there is none
+     * @param startDocument Document whose changes the update extends, or null if there is none
+     * @param startRevision Last revision processed before the update, or null if there is none
+     * @param rebuild   true if the update replaces all changes, false if it extends them
+     * @param unmatchedChanges  Changes still awaiting alignment and conflict detection
+     */
+    DiffUpdate(VersionedOWLOntology document, VersionedOWLOntology startDocument, DocumentRevision startRevision,
+               boolean rebuild, Collection<Change> unmatchedChanges) {
+        this.document = document;
+        this.startDocument = startDocument;
+        this.startRevision = startRevision;
+        this.endRevision = startRevision;
+        this.rebuild = rebuild;
+        this.unmatchedChanges = new ArrayList<>(checkNotNull(unmatchedChanges));
+    }
+
+    public Optional<VersionedOWLOntology> getDocument() {
+        return Optional.ofNullable(document);
+    }
+
+    public Optional<DocumentRevision> getEndRevision() {
+        return Optional.ofNullable(endRevision);
+    }
+
+    public boolean isRebuild() {
+        return rebuild;
+    }
+
+    /**
+     * Check whether this update can be applied to changes computed up to the given revision of the given document
+     *
+     * @param processedDocument Document whose changes have been processed
+     * @param lastRevision  Last processed revision
+     * @return true if the update is applicable, false if it is stale
+     */
+    boolean isApplicableTo(VersionedOWLOntology processedDocument, DocumentRevision lastRevision) {
+        return rebuild || (startDocument == processedDocument && Objects.equals(startRevision, lastRevision));
+    }
+
+    /**
+     * Check whether the update contains no changes
+     *
+     * @return true if there are no staged commits, changes, removals or conflicts
+     */
+    public boolean isEmpty() {
+        return commits.isEmpty() && addedChanges.isEmpty() && removedChanges.isEmpty() && conflicts.isEmpty();
+    }
+
+    void addChanges(Collection<Change> changes) {
+        for (Change change : changes) {
+            addedChanges.put(change.getId(), change);
+            addedChangesBySubject.put(change.getDetails().getSubject(), change);
+        }
+        unmatchedChanges.addAll(changes);
+    }
+
+    /**
+     * Add changes loaded from the cache, whose alignments and conflicts are already in place
+     *
+     * @param commits   Commits of the cached revisions
+     * @param changes   Collection of changes
+     * @param unmatchedChanges  Changes still awaiting alignment and conflict detection
+     * @param revision  Last revision whose changes were cached
+     */
+    void addCachedChanges(Collection<CommitMetadata> commits, Collection<Change> changes, Collection<Change> unmatchedChanges,
+                          DocumentRevision revision) {
+        this.commits.addAll(commits);
+        addChanges(changes);
+        cachedCommitCount = this.commits.size();
+        cachedChangeCount = addedChanges.size();
+        this.unmatchedChanges.clear();
+        this.unmatchedChanges.addAll(unmatchedChanges);
+        this.endRevision = revision;
+    }
+
+    void addCommit(CommitMetadata commit) {
+        commits.add(commit);
+    }
+
+    void align(Change change, OWLOntologyChange baseline) {
+        alignments.put(change, baseline);
+    }
+
+    void remove(Change change) {
+        removedChanges.add(change.getId());
+    }
+
+    boolean isRemoved(ChangeId id) {
+        return removedChanges.contains(id);
+    }
+
+    void addConflict(ChangeId change, ChangeId conflictingChange) {
+        conflicts.add(new ChangeId[] { change, conflictingChange });
+    }
+
+    void setEndRevision(DocumentRevision endRevision) {
+        this.endRevision = endRevision;
+    }
+
+    void clearUnmatchedChanges() {
+        unmatchedChanges.clear();
+    }
+
+    List<Change> getUnmatchedChanges() {
+        return unmatchedChanges;
+    }
+
+    List<CommitMetadata> getCommits() {
+        return commits;
+    }
+
+    /**
+     * Get all changes staged by this update, including those that it also removes
+     *
+     * @return Collection of changes
+     */
+    Collection<Change> getStagedChanges() {
+        return Collections.unmodifiableCollection(addedChanges.values());
+    }
+
+    Collection<Change> getAddedChanges(OWLObject subject) {
+        return addedChangesBySubject.get(subject);
+    }
+
+    /**
+     * Get the changes that are in place once this update is applied, among those it adds, i.e., excluding
+     * those aligned as previous values of later changes
+     *
+     * @return List of changes
+     */
+    List<Change> getRetainedChanges() {
+        List<Change> changes = new ArrayList<>(addedChanges.size());
+        for (Change change : addedChanges.values()) {
+            if (!removedChanges.contains(change.getId())) {
+                changes.add(change);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Get the commits of the revisions processed by this update, i.e., excluding those loaded from the cache
+     *
+     * @return List of commits
+     */
+    List<CommitMetadata> getComputedCommits() {
+        return commits.subList(cachedCommitCount, commits.size());
+    }
+
+    /**
+     * Get the changes computed by this update that are still in place at its end, i.e., excluding those
+     * loaded from the cache and those aligned as previous values of later changes
+     *
+     * @return List of changes
+     */
+    List<Change> getComputedChanges() {
+        List<Change> changes = new ArrayList<>(addedChanges.size() - cachedChangeCount);
+        Iterator<Change> it = addedChanges.values().iterator();
+        for (int i = 0; it.hasNext(); i++) {
+            Change change = it.next();
+            if (i >= cachedChangeCount && !removedChanges.contains(change.getId())) {
+                changes.add(change);
+            }
+        }
+        return changes;
+    }
+
+    void setSearchTerms(ChangeId id, Set<String> terms) {
+        searchTerms.put(checkNotNull(id), checkNotNull(terms));
+    }
+
+    /**
+     * Get the search terms computed for the given change, if any
+     *
+     * @param id    Change identifier
+     * @return Set of terms, or null if none were computed
+     */
+    Set<String> getSearchTerms(ChangeId id) {
+        return searchTerms.get(id);
+    }
+
+    /**
+     * Drop the search terms, once the changes have been indexed
+     */
+    void clearSearchTerms() {
+        searchTerms.clear();
+    }
+
+    void setCacheSegment(DiffCache.Segment cacheSegment) {
+        this.cacheSegment = cacheSegment;
+    }
+
+    /**
+     * Get what this update computed, in the form in which it is appended to the cache
+     *
+     * @return Cache segment, or an empty optional if there is nothing to cache
+     */
+    Optional<DiffCache.Segment> getCacheSegment() {
+        return Optional.ofNullable(cacheSegment);
+    }
+
+    Set<ChangeId> getRemovedChanges() {
+        return removedChanges;
+    }
+
+    Map<Change, OWLOntologyChange> getAlignments() {
+        return alignments;
+    }
+
+    List<ChangeId[]> getConflicts() {
+        return conflicts;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("startRevision", startRevision)
+                .add("endRevision", endRevision)
+                .add("rebuild", rebuild)
+                .add("added", addedChanges.size())
+                .add("removed", removedChanges.size())
+                .add("conflicts", conflicts.size())
+                .toString();
+    }
+}
@@ -0,0 +1,90 @@
+package org.protege.editor.owl.client.diff.model;
+
+import com.google.common.collect.ImmutableSet;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Resolves IRIs to the entities of the active ontology that have them, using the ontology's signature
+ * index rather than scanning its signature. Resolved entities are cached, and the cache entries of the
+ * IRIs in the signature of an ontology change are dropped when the change is applied; the whole cache
+ * is dropped when the active ontology changes. Lookups are thread-safe.
+ */
+public final class EntityResolver {
+    private final OWLModelManager modelManager;
+    private final ConcurrentMap<IRI, Set<OWLEntity>> entities = new ConcurrentHashMap<>();
+    private volatile OWLOntology ontology;
+
+    /**
+     * Constructor
+     *
+     * @param modelManager  OWL model manager
+     */
+    public EntityResolver(OWLModelManager modelManager) {
+        this.modelManager = checkNotNull(modelManager);
+    }
+
+    /**
+     * Get the entities of the active ontology that have the given IRI
+     *
+     * @param iri   IRI
+     * @return Set of entities, which holds more than one entity if the IRI is punned
+     */
+    public Set<OWLEntity> getEntities(IRI iri) {
+        checkNotNull(iri);
+        OWLOntology activeOntology = modelManager.getActiveOntology();
+        if (activeOntology != ontology) {
+            entities.clear();
+            ontology = activeOntology;
+        }
+        return entities.computeIfAbsent(iri, i -> ImmutableSet.copyOf(activeOntology.getEntitiesInSignature(i)));
+    }
+
+    /**
+     * Get the entity of the active ontology that has the given IRI. If the IRI is punned, the class with
+     * that IRI is preferred
+     *
+     * @param iri   IRI
+     * @return Entity, if there is one with the given IRI
+     */
+    public Optional<OWLEntity> getEntity(IRI iri) {
+        OWLEntity entity = null;
+        for (OWLEntity e : getEntities(iri)) {
+            if (e.isOWLClass()) {
+                return Optional.of(e);
+            } else if (entity == null) {
+                entity = e;
+            }
+        }
+        return Optional.ofNullable(entity);
+    }
+
+    /**
+     * Drop the cached entities of the IRIs in the signature of the given ontology changes
+     *
+     * @param changes   List of ontology changes
+     */
+    public void invalidate(List<? extends OWLOntologyChange> changes) {
+        for (OWLOntologyChange change : changes) {
+            for (OWLEntity e : change.getSignature()) {
+                entities.remove(e.getIRI());
+            }
+        }
+    }
+
+    /**
+     * Drop all cached entities
+     */
+    public void clear() {
+        entities.clear();
+        ontology = null;
+    }
+}
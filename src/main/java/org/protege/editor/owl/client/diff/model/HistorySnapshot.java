@@ -0,0 +1,161 @@
+package org.protege.editor.owl.client.diff.model;
+
+import com.google.common.base.MoreObjects;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.RevisionMetadata;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A copy of the part of the change history of a versioned ontology document that a diff update reads, along
+ * with the active ontology and project. The snapshot is taken on the event dispatch thread, where the document
+ * is updated (e.g., as a commit is reviewed), so that the update can then be computed on a background thread
+ * without reading the live change history. It holds the metadata and ontology changes of the revisions that
+ * follow a start revision, up to the head revision at the time it was taken
+ */
+public final class HistorySnapshot {
+    private static final HistorySnapshot NO_DOCUMENT = new HistorySnapshot();
+    private final VersionedOWLOntology document;
+    private final OWLOntology ontology;
+    private final String projectId;
+    private final DocumentRevision base, start, head;
+    private final List<RevisionMetadata> metadata;
+    private final List<List<OWLOntologyChange>> changes;
+
+    private HistorySnapshot() {
+        document = null;
+        ontology = null;
+        projectId = null;
+        base = start = head = null;
+        metadata = Collections.emptyList();
+        changes = Collections.emptyList();
+    }
+
+    private HistorySnapshot(VersionedOWLOntology document, OWLOntology ontology, String projectId, DocumentRevision start) {
+        this.document = checkNotNull(document);
+        this.ontology = checkNotNull(ontology);
+        this.projectId = projectId;
+        ChangeHistory history = document.getChangeHistory();
+        this.base = history.getBaseRevision();
+        this.head = history.getHeadRevision();
+        this.start = checkNotNull(start);
+        checkArgument(base.behindOrSameAs(start), "Start revision %s precedes base revision %s", start, base);
+        int size = Math.max(0, head.getRevisionDifferenceFrom(start));
+        metadata = new ArrayList<>(size);
+        changes = new ArrayList<>(size);
+        for (DocumentRevision revision = start.next(); revision.behindOrSameAs(head); revision = revision.next()) {
+            metadata.add(history.getMetadataForRevision(revision));
+            changes.add(Collections.unmodifiableList(new ArrayList<>(history.getChangesForRevision(revision))));
+        }
+    }
+
+    /**
+     * Get a snapshot for when there is no versioned ontology document
+     *
+     * @return Empty history snapshot
+     */
+    public static HistorySnapshot noDocument() {
+        return NO_DOCUMENT;
+    }
+
+    /**
+     * Take a snapshot of the change history of the given document. This must be called on the thread that
+     * updates the document, i.e., the event dispatch thread
+     *
+     * @param document  Versioned ontology document
+     * @param ontology  Active ontology
+     * @param projectId Active project identifier
+     * @param start Revision after which to copy the revisions of the history (exclusive)
+     * @return History snapshot
+     */
+    public static HistorySnapshot take(VersionedOWLOntology document, OWLOntology ontology, Optional<String> projectId,
+                                       DocumentRevision start) {
+        return new HistorySnapshot(document, ontology, projectId.orElse(null), start);
+    }
+
+    public Optional<VersionedOWLOntology> getDocument() {
+        return Optional.ofNullable(document);
+    }
+
+    public OWLOntology getOntology() {
+        return ontology;
+    }
+
+    public Optional<String> getProjectId() {
+        return Optional.ofNullable(projectId);
+    }
+
+    public DocumentRevision getBaseRevision() {
+        return base;
+    }
+
+    /**
+     * Get the revision after which the revisions of the history were copied
+     *
+     * @return Start revision (exclusive)
+     */
+    public DocumentRevision getStartRevision() {
+        return start;
+    }
+
+    public DocumentRevision getHeadRevision() {
+        return head;
+    }
+
+    /**
+     * Check whether the metadata and changes of the given revision are in the snapshot
+     *
+     * @param revision  Document revision
+     * @return true if the revision follows the start revision and is not ahead of the head revision
+     */
+    public boolean contains(DocumentRevision revision) {
+        return document != null && !revision.behindOrSameAs(start) && revision.behindOrSameAs(head);
+    }
+
+    /**
+     * Get the metadata of the given revision
+     *
+     * @param revision  Document revision
+     * @return Revision metadata
+     * @throws IllegalArgumentException if the revision is not in the snapshot
+     */
+    public RevisionMetadata getMetadataForRevision(DocumentRevision revision) {
+        return metadata.get(indexOf(revision));
+    }
+
+    /**
+     * Get the ontology changes of the given revision
+     *
+     * @param revision  Document revision
+     * @return Unmodifiable list of ontology changes
+     * @throws IllegalArgumentException if the revision is not in the snapshot
+     */
+    public List<OWLOntologyChange> getChangesForRevision(DocumentRevision revision) {
+        return changes.get(indexOf(revision));
+    }
+
+    private int indexOf(DocumentRevision revision) {
+        checkArgument(contains(revision), "Revision %s is not in the history snapshot", revision);
+        return revision.getRevisionDifferenceFrom(start) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("base", base)
+                .add("start", start)
+                .add("head", head)
+                .add("projectId", projectId)
+                .toString();
+    }
+}
@@ -0,0 +1,177 @@
+package org.protege.editor.owl.client.diff.model;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A conflict detector that gives the same results as {@link SimpleConflictDetector} with its default
+ * strategy, but keeps the changes it is told about in buckets keyed by change subject, change type and
+ * (for annotation changes) annotation property, with each bucket split by axiom type and then by author.
+ * The conflicts of a change are then the changes of other authors in the matching buckets, so finding
+ * them does not require comparing the change with every other change on the same subject.
+ *
+ * Changes that do not consist of a single axiom change (composite or non-axiom changes) match any axiom
+ * type, as in {@link SimpleConflictDetector}; they are kept under a wildcard axiom type.
+ */
+public final class IndexedConflictDetector implements ConflictDetector {
+    private static final AxiomType<?> ANY_AXIOM_TYPE = null;
+    private final Map<BucketKey, Map<AxiomType<?>, SetMultimap<String, ChangeId>>> buckets = new HashMap<>();
+
+    /**
+     * No-args constructor
+     */
+    public IndexedConflictDetector() { }
+
+    @Override
+    public Set<ChangeId> getConflictingChanges(Change seed, Collection<Change> searchSpace) {
+        checkNotNull(seed);
+        Set<ChangeId> conflictingChanges = new HashSet<>();
+        Optional<BucketKey> key = getKey(seed);
+        if (!key.isPresent()) {
+            return conflictingChanges;
+        }
+        Map<AxiomType<?>, SetMultimap<String, ChangeId>> bucket = buckets.get(key.get());
+        if (bucket == null) {
+            return conflictingChanges;
+        }
+        String author = seed.getCommitMetadata().getAuthor();
+        AxiomType<?> axiomType = getAxiomType(seed);
+        if (axiomType == ANY_AXIOM_TYPE) {
+            for (SetMultimap<String, ChangeId> changes : bucket.values()) {
+                addOtherAuthorChanges(changes, author, conflictingChanges);
+            }
+        } else {
+            addOtherAuthorChanges(bucket.get(axiomType), author, conflictingChanges);
+            addOtherAuthorChanges(bucket.get(ANY_AXIOM_TYPE), author, conflictingChanges);
+        }
+        return conflictingChanges;
+    }
+
+    private void addOtherAuthorChanges(SetMultimap<String, ChangeId> changes, String author, Set<ChangeId> conflictingChanges) {
+        if (changes == null) {
+            return;
+        }
+        for (Map.Entry<String, Collection<ChangeId>> entry : changes.asMap().entrySet()) {
+            if (!entry.getKey().equals(author)) {
+                conflictingChanges.addAll(entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public boolean requiresSearchSpace() {
+        return false;
+    }
+
+    @Override
+    public void add(Change change) {
+        Optional<BucketKey> key = getKey(change);
+        if (key.isPresent()) {
+            buckets.computeIfAbsent(key.get(), k -> new HashMap<>())
+                    .computeIfAbsent(getAxiomType(change), t -> HashMultimap.create())
+                    .put(change.getCommitMetadata().getAuthor(), change.getId());
+        }
+    }
+
+    @Override
+    public void remove(Change change) {
+        Optional<BucketKey> key = getKey(change);
+        if (!key.isPresent()) {
+            return;
+        }
+        Map<AxiomType<?>, SetMultimap<String, ChangeId>> bucket = buckets.get(key.get());
+        if (bucket != null) {
+            AxiomType<?> axiomType = getAxiomType(change);
+            SetMultimap<String, ChangeId> changes = bucket.get(axiomType);
+            if (changes != null) {
+                changes.remove(change.getCommitMetadata().getAuthor(), change.getId());
+                if (changes.isEmpty()) {
+                    bucket.remove(axiomType);
+                }
+            }
+            if (bucket.isEmpty()) {
+                buckets.remove(key.get());
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        buckets.clear();
+    }
+
+    /**
+     * Get the bucket key of the given change. Annotation changes without an annotation property are never
+     * in conflict, so they have no key
+     *
+     * @param change    Change
+     * @return Bucket key
+     */
+    private Optional<BucketKey> getKey(Change change) {
+        ChangeDetails details = change.getDetails();
+        ChangeType type = details.getType();
+        OWLObject property = null;
+        if (type.equals(BuiltInChangeType.ANNOTATION) || type.equals(BuiltInChangeType.ONTOLOGY_ANNOTATION)) {
+            if (!details.getProperty().isPresent()) {
+                return Optional.empty();
+            }
+            property = details.getProperty().get();
+        }
+        return Optional.of(new BucketKey(details.getSubject(), type, property));
+    }
+
+    /**
+     * Get the axiom type of the given change if it consists of a single axiom change, or the wildcard axiom type otherwise
+     *
+     * @param change    Change
+     * @return Axiom type
+     */
+    private AxiomType<?> getAxiomType(Change change) {
+        if (change.getChanges().size() == 1) {
+            OWLOntologyChange ontChange = change.getChanges().iterator().next();
+            if (ontChange.isAxiomChange()) {
+                return ontChange.getAxiom().getAxiomType();
+            }
+        }
+        return ANY_AXIOM_TYPE;
+    }
+
+
+    private static final class BucketKey {
+        private final OWLObject subject;
+        private final ChangeType type;
+        private final OWLObject property;
+        private final int hashCode;
+
+        BucketKey(OWLObject subject, ChangeType type, OWLObject property) {
+            this.subject = checkNotNull(subject);
+            this.type = checkNotNull(type);
+            this.property = property;
+            this.hashCode = Objects.hashCode(subject, type, property);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            BucketKey that = (BucketKey) o;
+            return hashCode == that.hashCode &&
+                    Objects.equal(subject, that.subject) &&
+                    Objects.equal(type, that.type) &&
+                    Objects.equal(property, that.property);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -1,12 +1,13 @@
 package org.protege.editor.owl.client.diff.model;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
-import org.protege.editor.core.ui.error.ErrorLogPanel;
+import com.google.common.collect.Multiset;
 import org.protege.editor.owl.client.diff.DiffFactory;
 import org.protege.editor.owl.model.OWLModelManager;
-import org.protege.editor.owl.server.versioning.ChangeHistoryUtils;
-import org.protege.editor.owl.server.versioning.api.ChangeHistory;
 import org.protege.editor.owl.server.versioning.api.DocumentRevision;
 import org.protege.editor.owl.server.versioning.api.RevisionMetadata;
 import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
@@ -15,12 +16,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.*;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
@@ -30,13 +34,40 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public class LogDiff {
     private static final Logger logger = LoggerFactory.getLogger(LogDiff.class.getName());
     private static final DocumentRevision INITIAL_COMMIT_REVISION = DocumentRevision.create(1);
+    public static final String DECODE_PARALLELISM_PROPERTY = "org.protege.editor.owl.client.diff.decode.parallelism";
+    public static final String CONFLICT_DETECTOR_PROPERTY = "org.protege.editor.owl.client.diff.conflicts.detector";
+    public static final String ALIGNMENT_MODE_PROPERTY = "org.protege.editor.owl.client.diff.alignment.mode";
+    private static final int REVISIONS_PER_DECODE_THREAD = 4;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
     private final LogDiffManager diffManager;
     private final OWLModelManager modelManager;
     private Map<ChangeId, Change> changeMap = new HashMap<>();
+    // changes by ordinal, with null for removed changes; ordinals are given in the order changes are added,
+    // and only reused once all changes are cleared
+    private Change[] changesByOrdinal = new Change[64];
+    private int ordinalCount;
+    private Map<CommitId, CommitMetadata> commits = new LinkedHashMap<>();
     private Multimap<String,ChangeId> changesByUser = HashMultimap.create();
-    private Multimap<Date,ChangeId> changesByDate = HashMultimap.create();
+    private Multimap<CommitId,ChangeId> changesByCommit = LinkedHashMultimap.create();
     private Multimap<OWLObject,ChangeId> changesBySubject = HashMultimap.create();
+    private Multiset<String> commitsByUser = HashMultiset.create();
+    private Multiset<String> conflictingChangesByUser = HashMultiset.create();
+    private Multiset<CommitId> conflictingChangesByCommit = HashMultiset.create();
+    private Map<CommitId, Multiset<String>> conflictAuthorsByCommit = new HashMap<>();
+    private final ConflictGraph conflictGraph = new ConflictGraph();
+    private final ChangeSearchIndex searchIndex = new ChangeSearchIndex(this::getSubjectLabel);
+    private boolean conflictGraphStale;
     private DiffFactory diffFactory;
+    private ConflictDetector conflictDetector = createConflictDetector(System.getProperty(CONFLICT_DETECTOR_PROPERTY, "simple"));
+    private volatile BaselineMatcher baselineMatcher = createBaselineMatcher(System.getProperty(ALIGNMENT_MODE_PROPERTY, "single"));
+    private volatile DiffUpdate stagedUpdate, appliedUpdate;
+    private DiffDelta lastDelta = DiffDelta.reset();
+    private List<Change> unmatchedChanges = new ArrayList<>();
+    private VersionedOWLOntology processedDocument;
+    private DocumentRevision lastRevision;
+    private int decodeParallelism = Integer.getInteger(DECODE_PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors());
+    private DiffCache cache;
+    private final Set<OWLObject> relabeledSubjects = new HashSet<>();
 
     /**
      * Constructor
@@ -51,39 +82,528 @@ public class LogDiff {
     }
 
     /**
-     * Process all ontology revisions and compute changes
+     * Process the ontology revisions that have not been processed yet, apply the resulting changes and
+     * append them to the cache, on the calling thread. See {@link #computeUpdate(DiffProgressMonitor)} and {@link #applyUpdate(DiffUpdate)},
+     * which allow the (potentially long) computation to run on a background thread
      */
     public void initDiff() {
-        if (diffManager.getVersionedOntologyDocument().isPresent()) {
-            VersionedOWLOntology vont = diffManager.getVersionedOntologyDocument().get();
-            OWLOntology ontology = diffManager.getActiveOntology();
-            ChangeHistory changes = vont.getChangeHistory();
-            DocumentRevision base = changes.getBaseRevision();
-            DocumentRevision head = changes.getHeadRevision();
-            for (DocumentRevision rev = base.next(); rev.behindOrSameAs(head); rev = rev.next()) {
-                ChangeHistory hist = ChangeHistoryUtils.crop(changes, rev.previous(), 1);
-                RevisionMetadata metaData = hist.getMetadataForRevision(rev);
-                findRevisionChanges(ChangeHistoryUtils.getOntologyChanges(hist, ontology), metaData);
-                if(!rev.equals(INITIAL_COMMIT_REVISION)) {
-                    findBaselineMatches(changeMap.values());
-                    findConflits(changeMap.values());
+        try {
+            computeUpdate(DiffProgressMonitor.NONE).ifPresent(update -> {
+                if (applyUpdate(update)) {
+                    saveCache(update);
                 }
+            });
+        } catch (InterruptedException e) {
+            logger.warn("Interrupted while computing the changes after revision " + lastRevision);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Take a snapshot of the change history revisions that the next update reads, i.e., those after the last
+     * processed revision, or all revisions if the changes are to be recomputed. This should be called on the
+     * thread that updates the versioned ontology document (i.e., the event dispatch thread), after which the
+     * update can be computed on any thread with {@link #computeUpdate(HistorySnapshot, DiffProgressMonitor)}
+     *
+     * @return History snapshot
+     */
+    public HistorySnapshot snapshotHistory() {
+        Optional<VersionedOWLOntology> document = diffManager.getVersionedOntologyDocument();
+        if (!document.isPresent()) {
+            return HistorySnapshot.noDocument();
+        }
+        VersionedOWLOntology vont = document.get();
+        DocumentRevision base = vont.getChangeHistory().getBaseRevision();
+        DocumentRevision head = vont.getChangeHistory().getHeadRevision();
+        return HistorySnapshot.take(vont, diffManager.getActiveOntology(), diffManager.getActiveProjectId(),
+                getStartRevision(!isExtendedBy(vont, base, head), base));
+    }
+
+    /**
+     * Compute the changes of the ontology revisions that have not been processed yet, reading the change
+     * history on the calling thread. See {@link #computeUpdate(HistorySnapshot, DiffProgressMonitor)}
+     *
+     * @param monitor   Progress monitor, notified once per processed revision
+     * @return Staged update, or an empty optional if all revisions have already been processed
+     * @throws InterruptedException if the computation is cancelled or interrupted
+     */
+    public Optional<DiffUpdate> computeUpdate(DiffProgressMonitor monitor) throws InterruptedException {
+        return computeUpdate(snapshotHistory(), monitor);
+    }
+
+    /**
+     * Compute the changes of the ontology revisions that have not been processed yet. Revisions up to the
+     * last processed one are kept as they are, so that only newer history is decoded, aligned and checked
+     * for conflicts. The changes are recomputed from scratch if the versioned ontology document is no
+     * longer the one that was processed, or if its history no longer extends the processed history. In
+     * that case, if a cache is set (see {@link #setCache(DiffCache)}), changes cached for the project are
+     * loaded and only the revisions committed since are processed.
+     *
+     * Revisions are read from the change history in batches, and the revisions of each batch are decoded
+     * into changes concurrently (see {@link #setDecodeParallelism(int)}). The decoded changes are then
+     * staged revision by revision, in revision order, so that alignment and conflict detection are
+     * deterministic.
+     *
+     * The change indices are only read here, never modified, and the change history is only read through the
+     * given snapshot, so this method can be called from a background thread provided that no update is applied
+     * in the meantime. The result is applied with {@link #applyUpdate(DiffUpdate)}
+     *
+     * @param history   Snapshot of the change history, taken with {@link #snapshotHistory()} since the last
+     *                  update was applied
+     * @param monitor   Progress monitor, notified once per processed revision
+     * @return Staged update, or an empty optional if all revisions have already been processed
+     * @throws InterruptedException if the computation is cancelled or interrupted
+     */
+    public Optional<DiffUpdate> computeUpdate(HistorySnapshot history, DiffProgressMonitor monitor) throws InterruptedException {
+        checkNotNull(history); checkNotNull(monitor);
+        if (!history.getDocument().isPresent()) {
+            if (processedDocument == null && changeMap.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(new DiffUpdate(null, processedDocument, lastRevision, true, Collections.emptyList()));
+        }
+        VersionedOWLOntology vont = history.getDocument().get();
+        OWLOntology ontology = history.getOntology();
+        DocumentRevision base = history.getBaseRevision();
+        DocumentRevision head = history.getHeadRevision();
+        boolean rebuild = !isExtendedBy(vont, base, head);
+        DocumentRevision start = getStartRevision(rebuild, base);
+        if (!rebuild && vont == processedDocument && start.equals(head)) {
+            return Optional.empty();
+        }
+        checkArgument(history.getStartRevision().behindOrSameAs(start), "History snapshot %s does not hold the revisions after %s",
+                history, start);
+        Optional<String> projectId = (cache != null ? history.getProjectId() : Optional.empty());
+        Optional<DiffCache.Entry> cached = Optional.empty();
+        if (projectId.isPresent() && start.equals(base)) {
+            cached = cache.load(projectId.get(), history, ontology);
+        }
+        // the revision after which the cache segment of this update starts, or null if the segment holds all changes
+        DocumentRevision cacheStart = (cached.isPresent() ? cached.get().getRevision() : (start.equals(base) ? null : start));
+        DiffUpdate update = new DiffUpdate(vont, processedDocument, lastRevision, rebuild || cached.isPresent(),
+                (rebuild || cached.isPresent() ? Collections.emptyList() : unmatchedChanges));
+        syncConflictDetector(update);
+        if (cached.isPresent()) {
+            update.addCachedChanges(cached.get().getCommits(), cached.get().getChanges(), cached.get().getUnmatchedChanges(),
+                    cached.get().getRevision());
+            cached.get().getChanges().forEach(conflictDetector::add);
+            start = cached.get().getRevision();
+        }
+        int total = head.getRevisionDifferenceFrom(start), processed = 0;
+        RevisionCursor cursor = new RevisionCursor(history, start);
+        ForkJoinPool pool = null;
+        try {
+            while (cursor.hasNext()) {
+                checkCancelled(monitor);
+                List<RevisionCursor.Entry> batch = new ArrayList<>();
+                List<CommitMetadata> batchCommits = new ArrayList<>();
+                while (cursor.hasNext() && batch.size() < decodeParallelism * REVISIONS_PER_DECODE_THREAD) {
+                    RevisionCursor.Entry entry = cursor.next();
+                    batch.add(entry);
+                    batchCommits.add(createCommitMetadata(entry.getRevision(), entry.getMetadata()));
+                }
+                List<List<Change>> batchChanges;
+                if (decodeParallelism > 1 && batch.size() > 1) {
+                    if (pool == null) {
+                        pool = new ForkJoinPool(decodeParallelism);
+                    }
+                    batchChanges = decodeRevisions(pool, batch, batchCommits);
+                } else {
+                    batchChanges = new ArrayList<>(batch.size());
+                    for (int i = 0; i < batch.size(); i++) {
+                        batchChanges.add(decodeRevision(batch.get(i), batchCommits.get(i)));
+                    }
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    checkCancelled(monitor);
+                    DocumentRevision rev = batch.get(i).getRevision();
+                    update.addCommit(batchCommits.get(i));
+                    stageRevision(update, rev, batchChanges.get(i));
+                    monitor.revisionProcessed(rev, ++processed, total);
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        // subject labels may need to be computed from the ontology, so the search terms are computed here rather
+        // than when the changes are indexed on the event dispatch thread
+        for (Change change : update.getRetainedChanges()) {
+            checkCancelled(monitor);
+            update.setSearchTerms(change.getId(), searchIndex.getTerms(change));
+        }
+        if (projectId.isPresent()) {
+            cache.createSegment(projectId.get(), history, ontology, cacheStart, update).ifPresent(update::setCacheSegment);
+        }
+        return Optional.of(update);
+    }
+
+    /**
+     * Bring the conflict detector in line with the changes that the given update builds on. The detector
+     * is only used while computing updates, and it tracks the changes staged in the last computed update;
+     * if that update was not the last one applied (e.g., it was cancelled or stale), or if the detector
+     * has been replaced or the changes cleared since, the detector is reset with the current changes
+     *
+     * @param update    Diff update about to be computed
+     */
+    private void syncConflictDetector(DiffUpdate update) {
+        if (update.isRebuild()) {
+            conflictDetector.clear();
+        } else if (stagedUpdate == null || stagedUpdate != appliedUpdate) {
+            conflictDetector.clear();
+            changeMap.values().forEach(conflictDetector::add);
+        }
+        stagedUpdate = update;
+    }
+
+    private void checkCancelled(DiffProgressMonitor monitor) throws InterruptedException {
+        if (monitor.isCancelled() || Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException("Diff computation cancelled");
+        }
+    }
+
+    /**
+     * Apply the given update to the change indices. This should be called on the thread that reads the
+     * changes (i.e., the event dispatch thread), and takes time proportional to the size of the update
+     *
+     * @param update    Diff update
+     * @return true if the update was applied, false if it is stale, i.e., other changes were applied since
+     * it was computed
+     */
+    public boolean applyUpdate(DiffUpdate update) {
+        checkNotNull(update);
+        if (!update.isApplicableTo(processedDocument, lastRevision)) {
+            return false;
+        }
+        if (update.isRebuild()) {
+            clearChanges();
+        }
+        for (CommitMetadata commit : update.getCommits()) {
+            if (commits.put(commit.getCommitId(), commit) == null) {
+                commitsByUser.add(commit.getAuthor());
+            }
+        }
+        List<Change> added = update.getRetainedChanges();
+        List<Change> removed = new ArrayList<>();
+        Set<Change> modified = new LinkedHashSet<>();
+        for (Change change : added) {
+            // the terms of subjects relabeled while the update was computed are recomputed
+            boolean relabeled = relabeledSubjects.contains(change.getDetails().getSubject());
+            add(change, relabeled ? null : update.getSearchTerms(change.getId()));
+        }
+        update.clearSearchTerms();
+        relabeledSubjects.clear();
+        for (ChangeId id : update.getRemovedChanges()) {
+            Change change = changeMap.get(id);
+            if (change != null) {
+                remove(change);
+                removed.add(change);
+                conflictGraphStale |= conflictGraph.contains(id);
+            }
+        }
+        update.getAlignments().forEach((change, baseline) -> {
+            change.setBaselineChange(baseline);
+            change.setMode(ChangeMode.ALIGNED);
+            modified.add(change);
+        });
+        for (ChangeId[] conflict : update.getConflicts()) {
+            Change a = changeMap.get(conflict[0]), b = changeMap.get(conflict[1]);
+            addConflict(a, b);
+            modified.add(a);
+            modified.add(b);
+            if (!conflictGraphStale) {
+                conflictGraph.addConflict(a, b);
             }
         }
+        if (!conflictGraphStale) {
+            // changes restored from the cache come with their conflicts
+            added.stream().filter(Change::isConflicting).forEach(this::addToConflictGraph);
+        }
+        unmatchedChanges = new ArrayList<>(update.getUnmatchedChanges());
+        processedDocument = update.getDocument().orElse(null);
+        lastRevision = update.getEndRevision().orElse(null);
+        appliedUpdate = update;
+        if (update.isRebuild()) {
+            lastDelta = DiffDelta.reset();
+        } else {
+            modified.removeAll(added);
+            lastDelta = DiffDelta.create(added, removed, modified);
+        }
+        return true;
+    }
+
+    /**
+     * Get the changes added, removed and modified by the last update applied
+     *
+     * @return Diff delta, which is a reset delta if the last update replaced all changes
+     */
+    public DiffDelta getLastDelta() {
+        return lastDelta;
+    }
+
+    /**
+     * Decode the given revisions concurrently using the specified pool
+     *
+     * @param pool  Fork-join pool
+     * @param revisions List of revisions
+     * @param commits   Commit metadata of each revision
+     * @return List of the changes of each revision, in the same order as the given revisions
+     * @throws InterruptedException if interrupted while waiting for the revisions to be decoded
+     */
+    private List<List<Change>> decodeRevisions(ForkJoinPool pool, List<RevisionCursor.Entry> revisions, List<CommitMetadata> commits)
+            throws InterruptedException {
+        List<Callable<List<Change>>> tasks = new ArrayList<>(revisions.size());
+        for (int i = 0; i < revisions.size(); i++) {
+            RevisionCursor.Entry entry = revisions.get(i);
+            CommitMetadata commit = commits.get(i);
+            tasks.add(() -> decodeRevision(entry, commit));
+        }
+        List<List<Change>> revisionChanges = new ArrayList<>(revisions.size());
+        for (Future<List<Change>> future : pool.invokeAll(tasks)) {
+            try {
+                revisionChanges.add(future.get());
+            } catch (ExecutionException e) {
+                Throwables.propagateIfPossible(e.getCause());
+                throw new IllegalStateException("Error decoding revision", e.getCause());
+            }
+        }
+        return revisionChanges;
+    }
+
+    /**
+     * Decode the changes of the given revision. This does not modify the change indices, so revisions
+     * can be decoded concurrently
+     *
+     * @param entry Revision metadata and ontology changes
+     * @param commit    Commit metadata of the revision
+     * @return List of changes of the revision
+     */
+    private List<Change> decodeRevision(RevisionCursor.Entry entry, CommitMetadata commit) {
+        return findRevisionChanges(entry.getChanges(), commit, getRevisionTag(entry.getRevision()));
+    }
+
+    /**
+     * Create the commit metadata of the given revision. The commit identifier is the revision number,
+     * which is unique within the change history
+     *
+     * @param rev   Document revision
+     * @param metaData  Revision metadata
+     * @return Commit metadata
+     */
+    private CommitMetadata createCommitMetadata(DocumentRevision rev, RevisionMetadata metaData) {
+        String commitComment = (metaData.getComment() != null ? metaData.getComment() : "");
+        CommitId commitId = diffFactory.createCommitId(Integer.toString(getRevisionNumber(rev)));
+        return diffFactory.createCommitMetadata(commitId, metaData.getAuthorId(), metaData.getDate(), commitComment);
+    }
+
+    /**
+     * Get the number of the given revision
+     *
+     * @param rev   Document revision
+     * @return Revision number
+     */
+    static int getRevisionNumber(DocumentRevision rev) {
+        return rev.getRevisionDifferenceFrom(DocumentRevision.START_REVISION);
+    }
+
+    /**
+     * Get the revision tag of the given revision: 8 hexadecimal digits obtained by scrambling the revision
+     * number (with the MurmurHash3 finalizer), so that the tags of consecutive revisions are easy to tell
+     * apart. The scrambling is a bijection, so distinct revisions have distinct tags
+     *
+     * @param rev   Document revision
+     * @return Revision tag
+     */
+    private RevisionTag getRevisionTag(DocumentRevision rev) {
+        int h = getRevisionNumber(rev);
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        char[] tag = new char[8];
+        for (int i = tag.length - 1; i >= 0; i--, h >>>= 4) {
+            tag[i] = HEX_DIGITS[h & 0xf];
+        }
+        return diffFactory.createRevisionTag(new String(tag));
+    }
+
+    /**
+     * Stage the decoded changes of the given revision in the given update, and align them with previous
+     * values and find their conflicts
+     *
+     * @param update    Diff update
+     * @param rev   Document revision
+     * @param revisionChanges   List of changes of the revision
+     */
+    private void stageRevision(DiffUpdate update, DocumentRevision rev, List<Change> revisionChanges) {
+        update.addChanges(revisionChanges);
+        revisionChanges.forEach(conflictDetector::add);
+        // changes of the initial commit are matched together with those of the following revision
+        if(!rev.equals(INITIAL_COMMIT_REVISION)) {
+            findBaselineMatches(update);
+            findConflits(update);
+            update.clearUnmatchedChanges();
+        }
+        update.setEndRevision(rev);
+    }
+
+    /**
+     * Create the conflict detector with the given name: {@code indexed} for {@link IndexedConflictDetector},
+     * or {@code simple} for {@link SimpleConflictDetector}
+     *
+     * @param name  Conflict detector name
+     * @return Conflict detector
+     */
+    private static ConflictDetector createConflictDetector(String name) {
+        if (name.equalsIgnoreCase("indexed")) {
+            return new IndexedConflictDetector();
+        } else if (!name.equalsIgnoreCase("simple")) {
+            logger.warn("Unknown conflict detector '" + name + "', using the simple conflict detector");
+        }
+        return new SimpleConflictDetector();
+    }
+
+    /**
+     * Set the conflict detector used for changes processed from now on. By default this is a
+     * {@link SimpleConflictDetector}, unless the {@value #CONFLICT_DETECTOR_PROPERTY} system property
+     * is set to {@code indexed}
+     *
+     * @param conflictDetector  Conflict detector
+     */
+    public void setConflictDetector(ConflictDetector conflictDetector) {
+        this.conflictDetector = checkNotNull(conflictDetector);
+        stagedUpdate = null;
+    }
+
+    /**
+     * Create the baseline matcher for the given alignment mode name: {@code single} (the default) only aligns
+     * additions that have exactly one candidate removal, and {@code ordered} pairs additions and removals in
+     * the order they were made
+     *
+     * @param name  Alignment mode name
+     * @return Baseline matcher
+     */
+    private static BaselineMatcher createBaselineMatcher(String name) {
+        if (name.equalsIgnoreCase("ordered")) {
+            return new BaselineMatcher(BaselineMatcher.Mode.ORDERED);
+        }
+        if (!name.equalsIgnoreCase("single")) {
+            logger.warn("Unknown alignment mode '" + name + "', using single-candidate alignment");
+        }
+        return new BaselineMatcher(BaselineMatcher.Mode.SINGLE);
+    }
+
+    /**
+     * Get the alignment mode used to find the previous values of changes, which is given by the
+     * {@value #ALIGNMENT_MODE_PROPERTY} system property and defaults to {@link BaselineMatcher.Mode#SINGLE}
+     *
+     * @return Alignment mode
+     */
+    public BaselineMatcher.Mode getAlignmentMode() {
+        return baselineMatcher.getMode();
+    }
+
+    /**
+     * Set the alignment mode used to find the previous values of changes. The mode applies to the
+     * revisions processed from then on
+     *
+     * @param mode  Alignment mode
+     */
+    public void setAlignmentMode(BaselineMatcher.Mode mode) {
+        baselineMatcher = new BaselineMatcher(mode);
+    }
+
+    /**
+     * Append the changes computed by the given update, which must be the last update applied, to the cache,
+     * if one is set. Only the revisions processed by the update are written, in the background
+     *
+     * @param update    Diff update
+     */
+    public void saveCache(DiffUpdate update) {
+        checkNotNull(update);
+        if (cache != null && update == appliedUpdate) {
+            update.getCacheSegment().ifPresent(cache::append);
+        }
+    }
+
+    /**
+     * Set the cache where computed changes are saved, and from which they are loaded when a project is opened
+     *
+     * @param cache Diff cache, or null to disable caching
+     */
+    public void setCache(DiffCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Get the number of threads used to decode revisions
+     *
+     * @return Decode parallelism level
+     */
+    public int getDecodeParallelism() {
+        return decodeParallelism;
+    }
+
+    /**
+     * Set the number of threads used to decode revisions. By default this is the number of available
+     * processors, or the value of the {@value #DECODE_PARALLELISM_PROPERTY} system property if it is set
+     *
+     * @param decodeParallelism Decode parallelism level; 1 decodes revisions on the calling thread
+     */
+    public void setDecodeParallelism(int decodeParallelism) {
+        checkArgument(decodeParallelism > 0, "Decode parallelism must be positive");
+        this.decodeParallelism = decodeParallelism;
+    }
+
+    /**
+     * Get the revision after which an update starts processing revisions
+     *
+     * @param rebuild   true if the changes are recomputed, false if they are kept
+     * @param base  Base revision of the document's change history
+     * @return Start revision (exclusive)
+     */
+    private DocumentRevision getStartRevision(boolean rebuild, DocumentRevision base) {
+        return (!rebuild && lastRevision != null ? lastRevision : base);
+    }
+
+    /**
+     * Check whether the history of the given versioned ontology document extends the history that
+     * has already been processed, i.e., whether newer revisions can be folded into the current changes
+     *
+     * @param vont  Versioned OWL ontology document
+     * @param base  Base revision of the document's change history
+     * @param head  Head revision of the document's change history
+     * @return true if the processed changes can be kept, false if they must be recomputed
+     */
+    private boolean isExtendedBy(VersionedOWLOntology vont, DocumentRevision base, DocumentRevision head) {
+        if (lastRevision == null) {
+            return true;
+        }
+        return vont == processedDocument && base.behindOrSameAs(lastRevision) && lastRevision.behindOrSameAs(head);
+    }
+
+    /**
+     * Get the most recent revision whose changes have been processed
+     *
+     * @return Last processed document revision, if any
+     */
+    public Optional<DocumentRevision> getLastRevision() {
+        return Optional.ofNullable(lastRevision);
     }
 
     /**
      * Compute the changes that occurred in the given commit
      *
      * @param ontChanges    List of OWL ontology changes
-     * @param metaData  Metadata regarding the commit
+     * @param commitMetadata    Commit metadata
+     * @param revisionTag   Revision tag
+     * @return List of changes
      */
-    private void findRevisionChanges(List<OWLOntologyChange> ontChanges, RevisionMetadata metaData) {
-        String commitComment = (metaData.getComment() != null ? metaData.getComment() : "");
-        // produce a revision tag that uses the hashcode of the commit metadata
-        RevisionTag revisionTag = getRevisionTag(metaData.hashCode() + "");
-        CommitMetadata commitMetadata = diffFactory.createCommitMetadata(diffFactory.createCommitId(metaData.hashCode()+""), metaData.getAuthorId(), metaData.getDate(), commitComment);
-        Multimap<ChangeDetails, OWLOntologyChange> multimap = HashMultimap.create();
+    private List<Change> findRevisionChanges(List<OWLOntologyChange> ontChanges, CommitMetadata commitMetadata, RevisionTag revisionTag) {
+        Multimap<ChangeDetails, OWLOntologyChange> multimap = LinkedHashMultimap.create();
+        List<Change> revisionChanges = new ArrayList<>();
         ontChanges.stream().filter(ontChange -> !isCustomPropertyDeclaration(ontChange)).forEach(ontChange -> {
             if (isAnnotated(ontChange)) { // custom change
                 ChangeDetails details = getChangeDetailsFromAnnotatedAxiom(ontChange.getAxiom());
@@ -91,15 +611,16 @@ public class LogDiff {
             } else {
                 Optional<Change> change = getChangeObject(ontChange, commitMetadata, revisionTag);
                 if (change.isPresent()) {
-                    add(change.get());
+                    revisionChanges.add(change.get());
                 }
             }
         });
         for (ChangeDetails details : multimap.keySet()) {
             Set<OWLOntologyChange> changeList = (Set<OWLOntologyChange>) multimap.get(details);
             Change c = diffFactory.createChange(changeList, details, commitMetadata, ChangeMode.CUSTOM);
-            add(c);
+            revisionChanges.add(c);
         }
+        return revisionChanges;
     }
 
     /**
@@ -203,13 +724,9 @@ public class LogDiff {
             changes = getChangesForUser(userId);
         }
         else if(event.equals(LogDiffEvent.COMMIT_SELECTION_CHANGED)) {
-            CommitMetadata metadata = diffManager.getSelectedCommit();
-            Collection<ChangeId> dateChangeIds = changesByDate.get(metadata.getDate());
-            changes = getChangesForCommit(metadata, dateChangeIds);
+            changes = getChangesForCommit(diffManager.getSelectedCommit());
         }
         else if(event.equals(LogDiffEvent.ONTOLOGY_UPDATED) || event.equals(LogDiffEvent.COMMIT_OCCURRED)) {
-            clear();
-            initDiff();
             changes = changeMap.values().stream().collect(Collectors.toList());
         }
         return changes;
@@ -249,28 +766,6 @@ public class LogDiff {
         return false;
     }
 
-    /**
-     * Get a revision tag by hashing the given string
-     *
-     * @param string    Revision tag string
-     * @return Revision tag
-     */
-    private RevisionTag getRevisionTag(String string) {
-        MessageDigest md = null;
-        try {
-            md = MessageDigest.getInstance("MD5");
-        } catch (NoSuchAlgorithmException e) {
-            ErrorLogPanel.showErrorDialog(e);
-        }
-        md.update(string.getBytes());
-        byte[] digestBytes = md.digest();
-        StringBuilder sb = new StringBuilder();
-        for (byte b : digestBytes) {
-            sb.append(String.format("%02x", b & 0xff));
-        }
-        return diffFactory.createRevisionTag(sb.toString().substring(0, 8));
-    }
-
     /**
      * Get OWL entity that corresponds to the given IRI
      *
@@ -278,14 +773,7 @@ public class LogDiff {
      * @return OWL entity
      */
     private OWLEntity getEntityFromIri(IRI iri) {
-        OWLEntity entity = null;
-        Set<OWLEntity> sig = modelManager.getActiveOntology().getSignature();
-        for (OWLEntity e : sig) {
-            if (e.getIRI().equals(iri)) {
-                entity = e;
-                break;
-            }
-        }
+        OWLEntity entity = diffManager.getEntityResolver().getEntity(iri).orElse(null);
         if (entity == null) {
             logger.error("The given IRI does not exist in active ontology (" + iri.toString() + ")");
         }
@@ -293,46 +781,156 @@ public class LogDiff {
     }
 
     /**
-     * Find conflicting changes within the specified collection of changes
+     * Find the changes in conflict with each of the unmatched (newly staged) changes of the given update.
+     * Conflicts are symmetric, so each conflict found is recorded for both changes; this way only the subject
+     * buckets hit by new changes need to be searched, rather than every change seen so far. Changes that are
+     * removed by the update (i.e., aligned removals) are skipped
      *
-     * @param searchSpace   Collection of changes within which to search
+     * @param update    Diff update
      */
-    private void findConflits(Collection<Change> searchSpace) {
-        ConflictDetector conflictDetector = new SimpleConflictDetector();
-        for (Change change : searchSpace) {
-            List<Change> subjectChanges = getChangesForSubject(change.getDetails().getSubject());
+    private void findConflits(DiffUpdate update) {
+        for (Change change : update.getUnmatchedChanges()) {
+            if (update.isRemoved(change.getId())) {
+                continue;
+            }
+            List<Change> subjectChanges = (conflictDetector.requiresSearchSpace() ?
+                    getChangesForSubject(update, change.getDetails().getSubject()) : Collections.emptyList());
             Set<ChangeId> conflicting = conflictDetector.getConflictingChanges(change, subjectChanges);
-            conflicting.forEach(change::addConflictingChange);
-            changeMap.put(change.getId(), change);
+            for (ChangeId id : conflicting) {
+                update.addConflict(change.getId(), id);
+            }
         }
     }
 
+    /**
+     * Get the changes carried out on the specified OWL object, as they will be once the given update is applied
+     *
+     * @param update    Diff update
+     * @param owlObject OWL object
+     * @return List of changes
+     */
+    private List<Change> getChangesForSubject(DiffUpdate update, OWLObject owlObject) {
+        List<Change> changes = new ArrayList<>();
+        if (!update.isRebuild()) {
+            for (ChangeId id : changesBySubject.get(owlObject)) {
+                if (!update.isRemoved(id)) {
+                    changes.add(changeMap.get(id));
+                }
+            }
+        }
+        for (Change change : update.getAddedChanges(owlObject)) {
+            if (!update.isRemoved(change.getId())) {
+                changes.add(change);
+            }
+        }
+        return changes;
+    }
+
     public Change getChange(ChangeId changeId) {
         return changeMap.get(changeId);
     }
-    
-    public List<Change> getChangesForCommit(CommitMetadata metadata) {        
-        Collection<ChangeId> dateChangeIds = changesByDate.get(metadata.getDate());        
-        return getChangesForCommit(metadata, dateChangeIds);
+
+    /**
+     * Get the change with the given ordinal (see {@link Change#getOrdinal()})
+     *
+     * @param ordinal   Change ordinal, which is less than {@link #getOrdinalCount()}
+     * @return Change, or null if the change with that ordinal has been removed
+     */
+    public Change getChange(int ordinal) {
+        checkArgument(ordinal >= 0 && ordinal < ordinalCount, "Invalid change ordinal %s", ordinal);
+        return changesByOrdinal[ordinal];
     }
 
     /**
-     * Get a list of changes (within the given change collection) that occurred in the specified commit
+     * Get the number of change ordinals given so far, i.e., the number of changes added since the changes
+     * were last cleared, including those that have since been removed
+     *
+     * @return Number of change ordinals
+     */
+    public int getOrdinalCount() {
+        return ordinalCount;
+    }
+    
+    /**
+     * Get the list of changes that occurred in the specified commit
      *
      * @param metadata  Commit metadata
-     * @param searchSpace   Collection of change identifiers that constitutes the search space within
-     *                      which to look for changes
      * @return List of changes
      */
-    private List<Change> getChangesForCommit(CommitMetadata metadata, Collection<ChangeId> searchSpace) {
-        List<Change> changes = new ArrayList<>();
-        for (ChangeId id : searchSpace) {
-            Change c = changeMap.get(id);
-            if (c.getCommitMetadata().getCommitId().equals(metadata.getCommitId())) {
-                changes.add(c);
-            }
-        }
-        return changes;
+    public List<Change> getChangesForCommit(CommitMetadata metadata) {
+        Collection<ChangeId> changeIds = changesByCommit.get(metadata.getCommitId());
+        return changeIds.stream().map(id -> changeMap.get(id)).collect(Collectors.toList());
+    }
+
+    /**
+     * Get the number of changes in the specified commit that conflict with other changes
+     *
+     * @param metadata  Commit metadata
+     * @return Number of conflicting changes
+     */
+    public int getConflictCountForCommit(CommitMetadata metadata) {
+        return conflictingChangesByCommit.count(metadata.getCommitId());
+    }
+
+    /**
+     * Get the authors of the changes that conflict with the changes of the specified commit
+     *
+     * @param metadata  Commit metadata
+     * @return Unmodifiable set of author names
+     */
+    public Set<String> getConflictAuthorsForCommit(CommitMetadata metadata) {
+        Multiset<String> authors = conflictAuthorsByCommit.get(metadata.getCommitId());
+        return (authors == null ? Collections.emptySet() : Collections.unmodifiableSet(authors.elementSet()));
+    }
+
+    /**
+     * Get the authors of the commits processed so far
+     *
+     * @return Unmodifiable set of author names
+     */
+    public Set<String> getAuthors() {
+        return Collections.unmodifiableSet(commitsByUser.elementSet());
+    }
+
+    /**
+     * Get the number of commits by the given user, or of all commits if the user is {@link LogDiffManager#ALL_AUTHORS}
+     *
+     * @param userId    User identifier
+     * @return Number of commits
+     */
+    public int getCommitCountForUser(String userId) {
+        return (userId.equals(LogDiffManager.ALL_AUTHORS) ? commits.size() : commitsByUser.count(userId));
+    }
+
+    /**
+     * Get the number of changes by the given user, or of all changes if the user is {@link LogDiffManager#ALL_AUTHORS}
+     *
+     * @param userId    User identifier
+     * @return Number of changes
+     */
+    public int getChangeCountForUser(String userId) {
+        return (userId.equals(LogDiffManager.ALL_AUTHORS) ? changeMap.size() : changesByUser.get(userId).size());
+    }
+
+    /**
+     * Get the number of changes by the given user that conflict with other changes, or of all conflicting
+     * changes if the user is {@link LogDiffManager#ALL_AUTHORS}
+     *
+     * @param userId    User identifier
+     * @return Number of conflicting changes
+     */
+    public int getConflictCountForUser(String userId) {
+        return (userId.equals(LogDiffManager.ALL_AUTHORS) ? conflictingChangesByUser.size() : conflictingChangesByUser.count(userId));
+    }
+
+    /**
+     * Get the number of changes that occurred in the specified commit
+     *
+     * @param metadata  Commit metadata
+     * @return Number of changes
+     */
+    public int getChangeCountForCommit(CommitMetadata metadata) {
+        return changesByCommit.get(metadata.getCommitId()).size();
     }
 
     /**
@@ -362,85 +960,24 @@ public class LogDiff {
     }
 
     /**
-     * Search for previous values of the given changes
+     * Search for previous values of the unmatched changes of the given update. Matches are only sought within
+     * the commit of each change, so it suffices to look among the changes of the revision(s) just staged
      *
-     * @param changes   Set of changes
+     * @param update    Diff update
      */
-    private void findBaselineMatches(Collection<Change> changes) {
+    private void findBaselineMatches(DiffUpdate update) {
+        // only additions are modified; the corresponding removal will be the "baseline" for the (addition) change,
+        // and will get removed after an alignment is established
+        Map<Change, Change> matches = baselineMatcher.match(update.getUnmatchedChanges());
         Set<Change> toRemove = new HashSet<>();
-        for (Change c : changes) {
-            // only modify addition; the corresponding removal will be the "baseline" for the (addition) change,
-            // and will get removed after an alignment is established
-            if (c.getDetails().getType().isBuiltInType() && c.getMode().equals(ChangeMode.ADDITION)) {
-                Set<Change> matches = getMatchingChanges(c);
-                if (matches.size() == 1) {
-                    Change c2 = matches.iterator().next();
-                    if (((c.isOfType(BuiltInChangeType.ANNOTATION) || c.isOfType(BuiltInChangeType.ONTOLOGY_ANNOTATION))
-                            && c2.getDetails().getProperty().isPresent()
-                            && c2.getDetails().getProperty().get().equals(c.getDetails().getProperty().get())) ||
-                            c.isOfType(BuiltInChangeType.LOGICAL)) {
-                    	//System.out.println("the changes: " + c2.getDetails());
-                        c.setBaselineChange(c2.getChanges().iterator().next()); // non-custom changes have 1 OWL ontology change
-                        c.setMode(ChangeMode.ALIGNED);
-                        toRemove.add(c2);
-                    }
-                }
-            }
-        }
-        toRemove.forEach(this::remove);
-    }
-
-    /**
-     * Search for changes that can be aligned with the given one
-     *
-     * @param c Change
-     * @return Set of changes that match with given one
-     */
-    private Set<Change> getMatchingChanges(Change c) {
-        Set<Change> matches = new HashSet<>();
-        CommitMetadata commitMetadata = c.getCommitMetadata();
-        ChangeDetails changeDetails = c.getDetails();
-        Collection<ChangeId> changes = changesBySubject.get(changeDetails.getSubject());
-        for (Change change : getChangesForCommit(commitMetadata, changes)) {
-            if (change.getDetails().getType().equals(changeDetails.getType())) {
-                if (isMatchable(c, change)) {
-                    // TODO: match RHS expression types for axioms that can be reduced to SubClassOf axioms
-                    if (c.getDetails().getProperty().isPresent() && change.getDetails().getProperty().isPresent()) {
-                        if (c.getDetails().getProperty().get().equals(change.getDetails().getProperty().get()) && !c.equals(change)) {
-                            matches.add(change);
-                        }
-                    } else if (!c.equals(change)) {
-                        matches.add(change);
-                    }
-                }
-            }
+        matches.forEach((c, c2) -> {
+            update.align(c, c2.getChanges().iterator().next()); // non-custom changes have 1 OWL ontology change
+            toRemove.add(c2);
+        });
+        for (Change c : toRemove) {
+            update.remove(c);
+            conflictDetector.remove(c);
         }
-        return matches;
-    }
-
-    /**
-     * Verify whether the given pair of changes stand for opposite actions (i.e., one is addition the other a removal, or vice-versa),
-     * and have the same axiom type (if axiom changes) or are both ontology annotations
-     *
-     * @param change1   Change
-     * @param change2   Change
-     * @return true if changes have the same type
-     */
-    private boolean isMatchable(Change change1, Change change2) {
-        if ((change1.getMode().equals(ChangeMode.ADDITION) && change2.getMode().equals(ChangeMode.REMOVAL)) ||
-                (change1.getMode().equals(ChangeMode.REMOVAL) && change2.getMode().equals(ChangeMode.ADDITION))) {
-            // assuming single ontology change here, since these are built-in type changes
-            OWLOntologyChange c1 = change1.getChanges().iterator().next();
-            OWLOntologyChange c2 = change2.getChanges().iterator().next();
-            if (c1.isAxiomChange() && c2.isAxiomChange()) {
-                if (c1.getAxiom().getAxiomType().equals(c2.getAxiom().getAxiomType())) {
-                    return true;
-                }
-            } else if (c1 instanceof AnnotationChange && c2 instanceof AnnotationChange) {
-                return true;
-            }
-        }
-        return false;
     }
 
     /**
@@ -472,6 +1009,90 @@ public class LogDiff {
         }
     }
 
+    /**
+     * Get the commits processed so far, in revision order. There is a single commit metadata instance per revision
+     *
+     * @return List of commit metadata
+     */
+    public List<CommitMetadata> getCommits() {
+        return new ArrayList<>(commits.values());
+    }
+
+    /**
+     * Get the metadata of the commit with the given identifier
+     *
+     * @param commitId  Commit identifier
+     * @return Commit metadata, if the commit has been processed
+     */
+    public Optional<CommitMetadata> getCommitMetadata(CommitId commitId) {
+        return Optional.ofNullable(commits.get(commitId));
+    }
+
+    /**
+     * Get the graph of the conflicts between the current changes, from which conflict clusters can be read
+     * without traversing the conflicts of each change
+     *
+     * @return Conflict graph
+     */
+    public ConflictGraph getConflictGraph() {
+        if (conflictGraphStale) {
+            conflictGraph.clear();
+            changeMap.values().stream().filter(Change::isConflicting).forEach(this::addToConflictGraph);
+            conflictGraphStale = false;
+        }
+        return conflictGraph;
+    }
+
+    private void addToConflictGraph(Change change) {
+        for (ChangeId id : change.getConflictingChanges()) {
+            Change conflictingChange = changeMap.get(id);
+            if (conflictingChange != null) {
+                conflictGraph.addConflict(change, conflictingChange);
+            }
+        }
+    }
+
+    /**
+     * Search the changes by the words in their new annotation value, commit comment, author or subject label.
+     * See {@link ChangeSearchIndex#search(String)} for the query syntax
+     *
+     * @param query Query
+     * @return List of matching changes
+     */
+    public List<Change> search(String query) {
+        return searchIndex.search(query);
+    }
+
+    /**
+     * Bring the search terms of the changes of the given subjects up to date with their current labels. Labels
+     * are part of the terms of a change, which are otherwise computed once, when the change is added; this
+     * should be called on the event dispatch thread whenever labels are dropped from the subject label cache
+     * (see {@link SubjectLabelCache#invalidate(List)})
+     *
+     * @param droppedLabels Labels dropped from the subject label cache, by subject
+     */
+    public void updateSubjectLabels(Map<OWLObject, Optional<String>> droppedLabels) {
+        checkNotNull(droppedLabels);
+        droppedLabels.forEach((subject, label) -> {
+            if ((subject instanceof IRI || subject instanceof OWLClass)
+                    && !diffManager.getSubjectLabels().getLabel(subject).equals(label)) {
+                relabeledSubjects.add(subject);
+                for (ChangeId id : changesBySubject.get(subject)) {
+                    Change change = changeMap.get(id);
+                    searchIndex.add(change, searchIndex.getTerms(change));
+                }
+            }
+        });
+    }
+
+    private Optional<String> getSubjectLabel(Change change) {
+        OWLObject subject = change.getDetails().getSubject();
+        if (subject instanceof IRI || subject instanceof OWLClass) {
+            return diffManager.getSubjectLabels().getLabel(subject);
+        }
+        return Optional.empty();
+    }
+
     /**
      * Get the collection of all changes
      *
@@ -485,13 +1106,71 @@ public class LogDiff {
      * Add a change to change data structures
      *
      * @param change Change
+     * @param searchTerms   Search terms of the change, or null to compute them here
      */
-    private void add(Change change) {
+    private void add(Change change, Set<String> searchTerms) {
         CommitMetadata commitMetadata = change.getCommitMetadata();
         changeMap.put(change.getId(), change);
+        if (ordinalCount == changesByOrdinal.length) {
+            changesByOrdinal = Arrays.copyOf(changesByOrdinal, ordinalCount * 2);
+        }
+        change.setOrdinal(ordinalCount);
+        changesByOrdinal[ordinalCount++] = change;
         changesByUser.put(commitMetadata.getAuthor(), change.getId());
-        changesByDate.put(commitMetadata.getDate(), change.getId());
+        changesByCommit.put(commitMetadata.getCommitId(), change.getId());
         changesBySubject.put(change.getDetails().getSubject(), change.getId());
+        searchIndex.add(change, searchTerms != null ? searchTerms : searchIndex.getTerms(change));
+        // changes restored from the cache come with their conflicts
+        if (change.isConflicting()) {
+            countConflicting(change, 1);
+            for (ChangeId id : change.getConflictingChanges()) {
+                Change conflictingChange = changeMap.get(id);
+                if (conflictingChange != null) {
+                    countConflictAuthors(change, conflictingChange, 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Record a conflict between the given changes, and update the conflict counts of their authors and commits
+     *
+     * @param a Change
+     * @param b Change that conflicts with the first
+     */
+    private void addConflict(Change a, Change b) {
+        if (a.getConflictingChanges().contains(b.getId())) {
+            return;
+        }
+        if (!a.isConflicting()) {
+            countConflicting(a, 1);
+        }
+        if (!b.isConflicting()) {
+            countConflicting(b, 1);
+        }
+        a.addConflictingChange(b.getId());
+        b.addConflictingChange(a.getId());
+        countConflictAuthors(a, b, 1);
+    }
+
+    private void countConflicting(Change change, int delta) {
+        CommitMetadata commitMetadata = change.getCommitMetadata();
+        adjustCount(conflictingChangesByUser, commitMetadata.getAuthor(), delta);
+        adjustCount(conflictingChangesByCommit, commitMetadata.getCommitId(), delta);
+    }
+
+    private void countConflictAuthors(Change a, Change b, int delta) {
+        CommitMetadata commitA = a.getCommitMetadata(), commitB = b.getCommitMetadata();
+        adjustCount(conflictAuthorsByCommit.computeIfAbsent(commitA.getCommitId(), k -> HashMultiset.create()), commitB.getAuthor(), delta);
+        adjustCount(conflictAuthorsByCommit.computeIfAbsent(commitB.getCommitId(), k -> HashMultiset.create()), commitA.getAuthor(), delta);
+    }
+
+    private static <E> void adjustCount(Multiset<E> counts, E element, int delta) {
+        if (delta > 0) {
+            counts.add(element, delta);
+        } else {
+            counts.remove(element, -delta);
+        }
     }
 
     /**
@@ -503,18 +1182,47 @@ public class LogDiff {
         ChangeId id = change.getId();
         CommitMetadata commitMetadata = change.getCommitMetadata();
         changeMap.remove(id);
+        changesByOrdinal[change.getOrdinal()] = null;
         changesByUser.remove(commitMetadata.getAuthor(), id);
-        changesByDate.remove(commitMetadata.getDate(), id);
+        changesByCommit.remove(commitMetadata.getCommitId(), id);
         changesBySubject.remove(change.getDetails().getSubject(), id);
+        searchIndex.remove(change);
+        if (change.isConflicting()) {
+            countConflicting(change, -1);
+            for (ChangeId conflictingId : change.getConflictingChanges()) {
+                Change conflictingChange = changeMap.get(conflictingId);
+                if (conflictingChange != null) {
+                    countConflictAuthors(change, conflictingChange, -1);
+                }
+            }
+        }
     }
 
     /**
-     * Clear all changes
+     * Clear all changes, so that the next call to {@link #initDiff()} processes the whole history
      */
     public void clear() {
+        clearChanges();
+        stagedUpdate = null;
+    }
+
+    private void clearChanges() {
         changeMap.clear();
+        Arrays.fill(changesByOrdinal, 0, ordinalCount, null);
+        ordinalCount = 0;
+        commits.clear();
         changesByUser.clear();
-        changesByDate.clear();
+        changesByCommit.clear();
         changesBySubject.clear();
+        searchIndex.clear();
+        commitsByUser.clear();
+        conflictingChangesByUser.clear();
+        conflictingChangesByCommit.clear();
+        conflictAuthorsByCommit.clear();
+        conflictGraph.clear();
+        conflictGraphStale = false;
+        unmatchedChanges.clear();
+        processedDocument = null;
+        lastRevision = null;
     }
 }
\ No newline at end of file
@@ -5,5 +5,6 @@ package org.protege.editor.owl.client.diff.model;
  * Stanford Center for Biomedical Informatics Research
  */
 public enum LogDiffEvent {
-    AUTHOR_SELECTION_CHANGED, COMMIT_SELECTION_CHANGED, CHANGE_SELECTION_CHANGED, ONTOLOGY_UPDATED, CHANGE_REVIEWED, RESET, COMMIT_OCCURRED
+    AUTHOR_SELECTION_CHANGED, COMMIT_SELECTION_CHANGED, CHANGE_SELECTION_CHANGED, ONTOLOGY_UPDATED, CHANGE_REVIEWED, RESET, COMMIT_OCCURRED,
+    DIFF_PROGRESS, DIFF_UPDATED
 }
@@ -8,4 +8,15 @@ public interface LogDiffListener {
 
     void statusChanged(LogDiffEvent event);
 
+    /**
+     * Handle an event that comes with the changes it affected. By default, the changes are ignored and the
+     * event is handled by {@link #statusChanged(LogDiffEvent)}
+     *
+     * @param event Diff event
+     * @param delta Changes added, removed or modified
+     */
+    default void statusChanged(LogDiffEvent event, DiffDelta delta) {
+        statusChanged(event);
+    }
+
 }
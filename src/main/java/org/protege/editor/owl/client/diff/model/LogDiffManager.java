@@ -1,5 +1,6 @@
 package org.protege.editor.owl.client.diff.model;
 
+import edu.stanford.protege.metaproject.api.ProjectId;
 import org.protege.editor.core.Disposable;
 import org.protege.editor.core.ui.error.ErrorLogPanel;
 import org.protege.editor.owl.OWLEditorKit;
@@ -10,15 +11,21 @@ import org.protege.editor.owl.client.event.CommitOperationListener;
 import org.protege.editor.owl.model.OWLModelManager;
 import org.protege.editor.owl.model.event.EventType;
 import org.protege.editor.owl.model.event.OWLModelManagerListener;
-import org.protege.editor.owl.server.versioning.api.ChangeHistory;
 import org.protege.editor.owl.server.versioning.api.DocumentRevision;
-import org.protege.editor.owl.server.versioning.api.RevisionMetadata;
 import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
 import org.semanticweb.owlapi.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.swing.*;
 import java.util.*;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.protege.editor.owl.client.diff.model.LogDiffEvent.COMMIT_OCCURRED;
 
@@ -27,39 +34,30 @@ import static org.protege.editor.owl.client.diff.model.LogDiffEvent.COMMIT_OCCUR
  * Stanford Center for Biomedical Informatics Research
  */
 public class LogDiffManager implements Disposable {
+    private static final Logger logger = LoggerFactory.getLogger(LogDiffManager.class.getName());
     public static final String ALL_AUTHORS = "All Authors";
+    public static final String COALESCING_WINDOW_PROPERTY = "org.protege.editor.owl.client.diff.events.window";
+    private static final int DEFAULT_COALESCING_WINDOW = 250, MAX_COALESCING_WINDOWS = 8;
     private static DiffFactory diffFactory = new DiffFactoryImpl();
     private Set<LogDiffListener> listeners = new HashSet<>();
     private List<Change> selectedChanges = new ArrayList<>();
-    private List<CommitMetadata> commits = new ArrayList<>();
     private ReviewManager reviewManager;
     private OWLModelManager modelManager;
     private OWLEditorKit editorKit;
+    private EntityResolver entityResolver;
+    private SubjectLabelCache subjectLabels;
     private String selectedAuthor;
     private boolean allComplexEditChangesSelected = true;
     
-    private HashMap<String, List<Integer>> user_cnts = new HashMap<String, List<Integer>>();
-    
-    public void setUserCounts(HashMap<String, List<Integer>> cnts) { user_cnts = cnts; }
-    
-    public List<Integer> getCount(String user) { 
-    	if (user.equals(ALL_AUTHORS)) {
-    		Integer count = 0;
-    		Integer conflictCount = 0;
-    		for (String us : user_cnts.keySet()) {
-    			count += user_cnts.get(us).get(0);
-    			conflictCount += user_cnts.get(us).get(1);
-    		}
-    		List<Integer> countList = new ArrayList<Integer>();
-    		countList.add(count);
-    		countList.add(conflictCount);
-    		return countList;
-    	} else {
-    		return user_cnts.get(user); }
-    	}
-    
     private CommitMetadata selectedCommit;
     private LogDiff diff;
+    private DiffUpdateWorker diffWorker, cancelledWorker;
+    private boolean diffUpdatePending;
+    private int diffProgress = -1;
+    private final javax.swing.Timer coalescingTimer = new javax.swing.Timer(Math.max(0, Integer.getInteger(COALESCING_WINDOW_PROPERTY, DEFAULT_COALESCING_WINDOW)),
+            e -> fireScheduledUpdate());
+    private boolean ontologyUpdatePending;
+    private long firstUpdateRequest;
 
     /**
      * Get the LogDiff manager
@@ -97,6 +95,9 @@ public class LogDiffManager implements Disposable {
     private LogDiffManager(OWLModelManager modelManager, OWLEditorKit editorKit) {
         this.modelManager = checkNotNull(modelManager);
         this.editorKit = checkNotNull(editorKit);
+        this.entityResolver = new EntityResolver(modelManager);
+        this.subjectLabels = new SubjectLabelCache(modelManager, entityResolver);
+        coalescingTimer.setRepeats(false);
 
         // add listeners
         ClientSession.getInstance(editorKit).addCommitOperationListener(commitListener);
@@ -109,24 +110,256 @@ public class LogDiffManager implements Disposable {
         return Optional.ofNullable(vont);
     }
 
+    public Optional<String> getActiveProjectId() {
+        ProjectId projectId = ClientSession.getInstance(editorKit).getActiveProject();
+        return Optional.ofNullable(projectId).map(ProjectId::get);
+    }
+
+    public EntityResolver getEntityResolver() {
+        return entityResolver;
+    }
+
+    public SubjectLabelCache getSubjectLabels() {
+        return subjectLabels;
+    }
+
     public OWLOntology getActiveOntology() {
         return modelManager.getActiveOntology();
     }
 
     private CommitOperationListener commitListener = event -> {
         statusChanged(COMMIT_OCCURRED);
+        scheduleUpdate(false);
     };
 
     private OWLOntologyChangeListener ontologyChangeListener = changes -> {
-        statusChanged(LogDiffEvent.ONTOLOGY_UPDATED);
+        entityResolver.invalidate(changes);
+        Map<OWLObject, Optional<String>> droppedLabels = subjectLabels.invalidate(changes);
+        if (diff != null) {
+            diff.updateSubjectLabels(droppedLabels);
+        }
+        scheduleUpdate(true);
     };
 
+    /**
+     * Schedule a diff update, and an {@link LogDiffEvent#ONTOLOGY_UPDATED} event if specified, at the end of the
+     * current coalescing window. Requests made within the window are merged, and each request extends the
+     * window, up to {@value #MAX_COALESCING_WINDOWS} times its length since the first request
+     *
+     * @param ontologyUpdated   true if the ontology has changed, false otherwise
+     */
+    private void scheduleUpdate(boolean ontologyUpdated) {
+        ontologyUpdatePending |= ontologyUpdated;
+        long now = System.currentTimeMillis();
+        if (!coalescingTimer.isRunning()) {
+            firstUpdateRequest = now;
+            coalescingTimer.start();
+        } else if (now - firstUpdateRequest < (long) MAX_COALESCING_WINDOWS * coalescingTimer.getInitialDelay()) {
+            coalescingTimer.restart();
+        }
+    }
+
+    private void fireScheduledUpdate() {
+        if (ontologyUpdatePending) {
+            ontologyUpdatePending = false;
+            statusChanged(LogDiffEvent.ONTOLOGY_UPDATED);
+        }
+        updateDiff();
+    }
+
+    /**
+     * Set the length of the window within which ontology change and commit notifications are merged into a
+     * single {@link LogDiffEvent#ONTOLOGY_UPDATED} event and diff update. By default this is the value of the
+     * {@value #COALESCING_WINDOW_PROPERTY} system property, or {@value #DEFAULT_COALESCING_WINDOW} milliseconds
+     *
+     * @param millis    Window length in milliseconds
+     */
+    public void setCoalescingWindow(int millis) {
+        checkArgument(millis >= 0, "Coalescing window must not be negative");
+        coalescingTimer.setInitialDelay(millis);
+    }
+
     private OWLModelManagerListener ontologyLoadListener = event -> {
         if (event.isType(EventType.ONTOLOGY_LOADED) || event.isType(EventType.ACTIVE_ONTOLOGY_CHANGED)) {
+            // the project has changed, so any diff being computed or scheduled is of no further use
+            cancelDiffUpdate();
+            coalescingTimer.stop();
+            ontologyUpdatePending = false;
+            entityResolver.clear();
+            subjectLabels.clear();
+            selectedAuthor = null;
+            selectedCommit = null;
+            selectedChanges = new ArrayList<>();
+            statusChanged(LogDiffEvent.RESET); // selections are of the previous project
             statusChanged(LogDiffEvent.ONTOLOGY_UPDATED);
+            updateDiff();
         }
     };
 
+    /**
+     * Bring the diff up to date with the change history in the background. The changes are computed
+     * off the event dispatch thread, with {@link LogDiffEvent#DIFF_PROGRESS} fired as revisions are
+     * processed, and the result is applied to the diff in one step on the event dispatch thread, after
+     * which {@link LogDiffEvent#DIFF_UPDATED} is fired. If an update is already running, another one is
+     * carried out once it completes. Likewise, if a cancelled update is still computing, the update only
+     * starts once that computation has stopped, so that no two computations ever run at the same time.
+     * The change history is snapshot when the update starts, so the versioned ontology document can be
+     * updated while the update computes. This must be called on the event dispatch thread
+     */
+    public void updateDiff() {
+        if (diffWorker != null || cancelledWorker != null) {
+            diffUpdatePending = true;
+            return;
+        }
+        diffUpdatePending = false;
+        LogDiff diff = getDiffEngine();
+        diffWorker = new DiffUpdateWorker(diff, diff.snapshotHistory());
+        diffProgress = 0;
+        diffWorker.execute();
+        statusChanged(LogDiffEvent.DIFF_PROGRESS);
+    }
+
+    /**
+     * Cancel the diff update in progress, if any. The diff is left as it was before the update started.
+     * The computation of a cancelled update may not stop right away, so the next update waits for it
+     */
+    public void cancelDiffUpdate() {
+        if (diffWorker != null) {
+            if (diffWorker.cancelComputation()) {
+                cancelledWorker = diffWorker;
+            }
+            diffWorker = null;
+            diffUpdatePending = false;
+            diffProgress = -1;
+            statusChanged(LogDiffEvent.DIFF_PROGRESS);
+        }
+    }
+
+    /**
+     * Check whether a diff update is in progress
+     *
+     * @return true if the diff is being updated, false otherwise
+     */
+    public boolean isDiffUpdating() {
+        return diffWorker != null || (cancelledWorker != null && diffUpdatePending);
+    }
+
+    /**
+     * Called once the computation of the given worker has stopped. If the worker was cancelled, the update
+     * that was waiting for it is started
+     *
+     * @param worker    Diff update worker
+     */
+    private void computationFinished(DiffUpdateWorker worker) {
+        if (cancelledWorker == worker) {
+            cancelledWorker = null;
+            if (diffUpdatePending) {
+                updateDiff();
+            }
+        }
+    }
+
+    /**
+     * Get the progress of the diff update in progress
+     *
+     * @return Percentage of the revisions processed so far, or -1 if no update is in progress
+     */
+    public int getDiffProgress() {
+        return diffProgress;
+    }
+
+    /**
+     * Computes a diff update on a background thread and applies it on the event dispatch thread
+     */
+    private class DiffUpdateWorker extends SwingWorker<Optional<DiffUpdate>, Integer> implements DiffProgressMonitor {
+        private static final int NOT_STARTED = 0, COMPUTING = 1, FINISHED = 2;
+        private final LogDiff diff;
+        private final HistorySnapshot history;
+        private final AtomicInteger state = new AtomicInteger(NOT_STARTED);
+        private Map<Change, ReviewStatus> reviews = Collections.emptyMap();
+
+        DiffUpdateWorker(LogDiff diff, HistorySnapshot history) {
+            this.diff = checkNotNull(diff);
+            this.history = checkNotNull(history);
+        }
+
+        @Override
+        protected Optional<DiffUpdate> doInBackground() throws Exception {
+            if (!state.compareAndSet(NOT_STARTED, COMPUTING)) {
+                return Optional.empty(); // cancelled before it started
+            }
+            try {
+                Optional<DiffUpdate> update = diff.computeUpdate(history, this);
+                if (update.isPresent() && update.get().isRebuild()) {
+                    // reviews are of the discarded changes; find the changes they apply to from now on
+                    reviews = reviewManager.readReviews(update.get().getRetainedChanges());
+                }
+                return update;
+            } finally {
+                state.set(FINISHED);
+                SwingUtilities.invokeLater(() -> computationFinished(this));
+            }
+        }
+
+        /**
+         * Cancel the worker
+         *
+         * @return true if the computation is still running, false if it has finished or will never start
+         */
+        boolean cancelComputation() {
+            cancel(true);
+            return !state.compareAndSet(NOT_STARTED, FINISHED) && state.get() == COMPUTING;
+        }
+
+        @Override
+        public void revisionProcessed(DocumentRevision revision, int processed, int total) {
+            publish(total > 0 ? (int) (100L * processed / total) : 100);
+        }
+
+        @Override
+        protected void process(List<Integer> chunks) {
+            if (diffWorker == this) {
+                diffProgress = chunks.get(chunks.size() - 1);
+                statusChanged(LogDiffEvent.DIFF_PROGRESS);
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (diffWorker != this) {
+                return; // cancelled
+            }
+            diffWorker = null;
+            diffProgress = -1;
+            boolean updated = false;
+            try {
+                Optional<DiffUpdate> update = get();
+                if (update.isPresent()) {
+                    if (diff.applyUpdate(update.get())) {
+                        updated = true;
+                        if (update.get().isRebuild()) {
+                            reviewManager.restoreReviews(reviews);
+                        }
+                        diff.saveCache(update.get());
+                    } else {
+                        diffUpdatePending = true; // stale, recompute against the current changes
+                    }
+                }
+            } catch (CancellationException | InterruptedException e) {
+                logger.debug("Diff update cancelled");
+            } catch (ExecutionException e) {
+                ErrorLogPanel.showErrorDialog(e.getCause());
+            }
+            statusChanged(LogDiffEvent.DIFF_PROGRESS);
+            if (updated) {
+                statusChanged(LogDiffEvent.DIFF_UPDATED, diff.getLastDelta());
+            }
+            if (diffUpdatePending) {
+                updateDiff();
+            }
+        }
+    }
+
     public Change getFirstSelectedChange() {
         checkNotNull(selectedChanges);
         return selectedChanges.get(0);
@@ -173,18 +406,11 @@ public class LogDiffManager implements Disposable {
 	}
 
 	public List<CommitMetadata> getCommits(LogDiffEvent event) {
-        VersionedOWLOntology vont = getVersionedOntologyDocument().get();
-        ChangeHistory changes = vont.getChangeHistory();
-        DocumentRevision base = changes.getBaseRevision();
-        DocumentRevision head = changes.getHeadRevision();
-        commits = new ArrayList<>();
-        for (DocumentRevision rev = base.next(); rev.behindOrSameAs(head); rev = rev.next()) {
-            RevisionMetadata metaData = changes.getMetadataForRevision(rev);
+        List<CommitMetadata> commits = new ArrayList<>();
+        for (CommitMetadata c : getDiffEngine().getCommits()) {
             if (event.equals(LogDiffEvent.AUTHOR_SELECTION_CHANGED) && getSelectedAuthor() != null &&
-                    (metaData.getAuthorId().equals(getSelectedAuthor()) || getSelectedAuthor().equals(LogDiffManager.ALL_AUTHORS)) ||
+                    (c.getAuthor().equals(getSelectedAuthor()) || getSelectedAuthor().equals(LogDiffManager.ALL_AUTHORS)) ||
                     event.equals(LogDiffEvent.ONTOLOGY_UPDATED) || event.equals(LogDiffEvent.COMMIT_OCCURRED)) {
-                CommitMetadata c = diffFactory.createCommitMetadata(diffFactory.createCommitId(metaData.hashCode() + ""),
-                        metaData.getAuthorId(), metaData.getDate(), metaData.getComment());
                 commits.add(c);
             }
         }
@@ -195,7 +421,11 @@ public class LogDiffManager implements Disposable {
     public LogDiff getDiffEngine() {
         if(diff == null) {
             diff = new LogDiff(this, modelManager);
-            reviewManager = new ReviewManagerImpl(diff);
+            diff.setCache(new DiffCache(DiffCache.getDefaultDirectory()));
+            ReviewManagerImpl reviewManagerImpl = new ReviewManagerImpl(diff, this);
+            reviewManagerImpl.setJournal(new ReviewJournal(DiffCache.getDefaultDirectory()));
+            reviewManager = reviewManagerImpl;
+            SwingUtilities.invokeLater(this::updateDiff);
         }
         return diff;
     }
@@ -219,6 +449,23 @@ public class LogDiffManager implements Disposable {
         }
     }
 
+    /**
+     * Notify listeners of an event that added, removed or modified the given changes
+     *
+     * @param event Diff event
+     * @param delta Changes affected
+     */
+    public void statusChanged(LogDiffEvent event, DiffDelta delta) {
+        checkNotNull(event); checkNotNull(delta);
+        for(LogDiffListener listener : listeners) {
+            try {
+                listener.statusChanged(event, delta);
+            } catch(Exception e) {
+                ErrorLogPanel.showErrorDialog(e);
+            }
+        }
+    }
+
     public ReviewManager getReviewManager() {
         return reviewManager;
     }
@@ -267,6 +514,9 @@ public class LogDiffManager implements Disposable {
 
     @Override
     public void dispose() throws Exception {
+        cancelDiffUpdate();
+        coalescingTimer.stop();
+        subjectLabels.clear();
         ClientSession.getInstance(editorKit).removeCommitOperationListener(commitListener);
         modelManager.getOWLOntologyManager().removeOntologyChangeListener(ontologyChangeListener);
         modelManager.removeListener(ontologyLoadListener);
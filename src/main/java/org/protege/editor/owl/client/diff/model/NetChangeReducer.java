@@ -0,0 +1,109 @@
+package org.protege.editor.owl.client.diff.model;
+
+import com.google.common.base.Objects;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.*;
+
+/**
+ * Reduces a list of ontology changes to its net effect. The changes on the same axiom, import or ontology
+ * annotation of the same ontology are collapsed into the last of them, which determines whether the axiom,
+ * import or annotation ends up in the ontology; that change is then dropped if the ontology is already in that
+ * state. For example, an addition and a later removal of an axiom that the ontology does not contain cancel
+ * out. Of the changes to the ontology identifier, only the last one is kept, unless it sets the current
+ * identifier. Reduction takes time linear in the number of changes
+ */
+public final class NetChangeReducer {
+
+    private NetChangeReducer() { }
+
+    /**
+     * Reduce the given list of ontology changes to its net effect
+     *
+     * @param changes   List of ontology changes, in the order they would be applied. Null elements are ignored
+     * @return List of ontology changes with the same effect, in the order in which each changed axiom, import
+     * or annotation first occurs in the given list
+     */
+    public static List<OWLOntologyChange> reduce(List<OWLOntologyChange> changes) {
+        Map<ChangeKey, OWLOntologyChange> lastChanges = new LinkedHashMap<>();
+        for (OWLOntologyChange change : changes) {
+            if (change != null) {
+                lastChanges.put(new ChangeKey(change.getOntology(), getTarget(change)), change);
+            }
+        }
+        List<OWLOntologyChange> reduced = new ArrayList<>(lastChanges.size());
+        for (OWLOntologyChange change : lastChanges.values()) {
+            if (!isNoOp(change)) {
+                reduced.add(change);
+            }
+        }
+        return reduced;
+    }
+
+    /**
+     * Get what the given change adds, removes or sets
+     *
+     * @param change    Ontology change
+     * @return Axiom, import declaration or annotation, or the change type for changes of the ontology identifier
+     */
+    private static Object getTarget(OWLOntologyChange change) {
+        if (change.isAxiomChange()) {
+            return change.getAxiom();
+        } else if (change instanceof ImportChange) {
+            return ((ImportChange) change).getImportDeclaration();
+        } else if (change instanceof AnnotationChange) {
+            return ((AnnotationChange) change).getAnnotation();
+        }
+        return change.getClass();
+    }
+
+    /**
+     * Check whether applying the given change would leave its ontology unchanged
+     *
+     * @param change    Ontology change
+     * @return true if the change is a no-op, false otherwise
+     */
+    private static boolean isNoOp(OWLOntologyChange change) {
+        OWLOntology ontology = change.getOntology();
+        if (change.isAxiomChange()) {
+            return change.isAddAxiom() == ontology.containsAxiom(change.getAxiom());
+        } else if (change instanceof AddImport) {
+            return ontology.getImportsDeclarations().contains(((ImportChange) change).getImportDeclaration());
+        } else if (change instanceof RemoveImport) {
+            return !ontology.getImportsDeclarations().contains(((ImportChange) change).getImportDeclaration());
+        } else if (change instanceof AddOntologyAnnotation) {
+            return ontology.getAnnotations().contains(((AnnotationChange) change).getAnnotation());
+        } else if (change instanceof RemoveOntologyAnnotation) {
+            return !ontology.getAnnotations().contains(((AnnotationChange) change).getAnnotation());
+        } else if (change instanceof SetOntologyID) {
+            return ontology.getOntologyID().equals(((SetOntologyID) change).getNewOntologyID());
+        }
+        return false;
+    }
+
+
+    private static final class ChangeKey {
+        private final OWLOntology ontology;
+        private final Object target;
+        private final int hashCode;
+
+        ChangeKey(OWLOntology ontology, Object target) {
+            this.ontology = ontology;
+            this.target = target;
+            this.hashCode = Objects.hashCode(System.identityHashCode(ontology), target);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ChangeKey that = (ChangeKey) o;
+            return hashCode == that.hashCode && ontology == that.ontology && Objects.equal(target, that.target);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package org.protege.editor.owl.client.diff.model;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.semanticweb.owlapi.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An append-only, on-disk journal of the review decisions that have not been committed yet, with one file
+ * per project, so that uncommitted reviews survive a crash or restart. Records are written on a single
+ * background thread; the records appended while a write is in progress are written together, and synced to
+ * disk once per such batch. A truncated record at the end of the journal (e.g., after a crash) is ignored.
+ *
+ * Since change identifiers are only stable while changes are cached, each record also holds a key derived
+ * from the commit and content of the change, by which the change can be found after the diff is rebuilt.
+ */
+public final class ReviewJournal {
+    private static final Logger logger = LoggerFactory.getLogger(ReviewJournal.class.getName());
+    private static final int MAGIC = 0x52484a4c, VERSION = 1;
+    private static final ReviewStatus[] STATUSES = ReviewStatus.values();
+    private final File directory;
+    private final List<Record> pendingRecords = new ArrayList<>();
+    private String pendingProjectId;
+    private boolean flushScheduled;
+    private String openProjectId;
+    private FileChannel channel;
+    private DataOutputStream out;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Review journal writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor
+     *
+     * @param directory Directory where journal files are kept
+     */
+    public ReviewJournal(File directory) {
+        this.directory = checkNotNull(directory);
+    }
+
+    /**
+     * Append the given records to the journal of the given project. The records are written in the background
+     *
+     * @param projectId Project identifier
+     * @param records   Collection of records
+     */
+    public void append(String projectId, Collection<Record> records) {
+        checkNotNull(projectId); checkNotNull(records);
+        if (records.isEmpty()) {
+            return;
+        }
+        synchronized (pendingRecords) {
+            if (pendingProjectId != null && !pendingProjectId.equals(projectId)) {
+                flushPending(); // do not mix records of different projects in a batch
+            }
+            pendingProjectId = projectId;
+            pendingRecords.addAll(records);
+            if (!flushScheduled) {
+                flushScheduled = true;
+                writer.execute(this::writePending);
+            }
+        }
+    }
+
+    /**
+     * Replace the journal of the given project with the given records, which should be the net outcome of
+     * the journal, e.g., the uncommitted reviews left after a commit. The journal file is deleted if there
+     * are no records. Records appended before this call are written (and so superseded) first
+     *
+     * @param projectId Project identifier
+     * @param records   Collection of records
+     */
+    public void compact(String projectId, Collection<Record> records) {
+        checkNotNull(projectId);
+        List<Record> recordList = new ArrayList<>(records);
+        synchronized (pendingRecords) {
+            flushPending();
+        }
+        writer.execute(() -> rewrite(projectId, recordList));
+    }
+
+    /**
+     * Read the records in the journal of the given project, in the order they were appended, waiting for
+     * records appended before this call to be written
+     *
+     * @param projectId Project identifier
+     * @return List of records
+     */
+    public List<Record> read(String projectId) {
+        checkNotNull(projectId);
+        synchronized (pendingRecords) {
+            flushPending();
+        }
+        try {
+            return writer.submit(() -> readRecords(projectId)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyList();
+        } catch (ExecutionException e) {
+            logger.warn("Unable to read review journal of project " + projectId, e.getCause());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Create a journal record of the given review of the given change
+     *
+     * @param change    Change
+     * @param status    Review status
+     * @return Journal record
+     */
+    public static Record createRecord(Change change, ReviewStatus status) {
+        return new Record(change.getCommitMetadata().getCommitId().get(), change.getId().get(), getChangeKey(change),
+                status, System.currentTimeMillis());
+    }
+
+    /**
+     * Get a key of the given change that is derived from its mode and its ontology changes, and so does not
+     * depend on the (generated) change identifier. Together with the commit identifier, the key identifies
+     * the change across diff computations
+     *
+     * @param change    Change
+     * @return Change key
+     */
+    public static String getChangeKey(Change change) {
+        List<String> contents = new ArrayList<>(change.getChanges().size());
+        for (OWLOntologyChange ontChange : change.getChanges()) {
+            contents.add(ontChange.getClass().getSimpleName() + " " + getChangeContent(ontChange));
+        }
+        Collections.sort(contents); // the ontology changes of a change are unordered
+        Hasher hasher = Hashing.murmur3_128().newHasher().putString(change.getMode().name(), StandardCharsets.UTF_8);
+        contents.forEach(c -> hasher.putString(c, StandardCharsets.UTF_8));
+        return hasher.hash().toString();
+    }
+
+    private static Object getChangeContent(OWLOntologyChange change) {
+        if (change.isAxiomChange()) {
+            return change.getAxiom();
+        } else if (change instanceof ImportChange) {
+            return ((ImportChange) change).getImportDeclaration();
+        } else if (change instanceof AnnotationChange) {
+            return ((AnnotationChange) change).getAnnotation();
+        } else if (change instanceof SetOntologyID) {
+            return ((SetOntologyID) change).getNewOntologyID();
+        }
+        return change;
+    }
+
+    // must hold the lock on pendingRecords
+    private void flushPending() {
+        if (!pendingRecords.isEmpty()) {
+            String projectId = pendingProjectId;
+            List<Record> records = new ArrayList<>(pendingRecords);
+            pendingRecords.clear();
+            writer.execute(() -> write(projectId, records));
+        }
+    }
+
+    private void writePending() {
+        String projectId;
+        List<Record> records;
+        synchronized (pendingRecords) {
+            flushScheduled = false;
+            if (pendingRecords.isEmpty()) {
+                return;
+            }
+            projectId = pendingProjectId;
+            records = new ArrayList<>(pendingRecords);
+            pendingRecords.clear();
+        }
+        write(projectId, records);
+    }
+
+    private void write(String projectId, List<Record> records) {
+        try {
+            open(projectId);
+            for (Record record : records) {
+                writeRecord(out, record);
+            }
+            out.flush();
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unable to write review journal of project " + projectId, e);
+            close();
+        }
+    }
+
+    private void open(String projectId) throws IOException {
+        if (channel != null && projectId.equals(openProjectId)) {
+            return;
+        }
+        close();
+        Files.createDirectories(directory.toPath());
+        File file = getFile(projectId);
+        boolean isNew = !file.isFile() || file.length() == 0;
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        openProjectId = projectId;
+        if (isNew) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(projectId);
+        }
+    }
+
+    private void close() {
+        if (channel != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                logger.warn("Unable to close review journal of project " + openProjectId, e);
+            }
+        }
+        channel = null;
+        out = null;
+        openProjectId = null;
+    }
+
+    private void rewrite(String projectId, List<Record> records) {
+        if (projectId.equals(openProjectId)) {
+            close();
+        }
+        File file = getFile(projectId);
+        File tmp = new File(directory, file.getName() + ".tmp");
+        try {
+            if (records.isEmpty()) {
+                Files.deleteIfExists(file.toPath());
+                return;
+            }
+            Files.createDirectories(directory.toPath());
+            try (FileOutputStream fileOut = new FileOutputStream(tmp);
+                 DataOutputStream tmpOut = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+                tmpOut.writeInt(MAGIC);
+                tmpOut.writeInt(VERSION);
+                tmpOut.writeUTF(projectId);
+                for (Record record : records) {
+                    writeRecord(tmpOut, record);
+                }
+                tmpOut.flush();
+                fileOut.getFD().sync();
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unable to compact review journal of project " + projectId, e);
+            if (tmp.exists() && !tmp.delete()) {
+                logger.warn("Unable to delete " + tmp);
+            }
+        }
+    }
+
+    private List<Record> readRecords(String projectId) throws IOException {
+        File file = getFile(projectId);
+        List<Record> records = new ArrayList<>();
+        if (!file.isFile()) {
+            return records;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(projectId)) {
+                logger.warn("Ignoring unrecognized review journal " + file);
+                return records;
+            }
+            while (true) {
+                records.add(readRecord(in));
+            }
+        } catch (EOFException e) {
+            // end of the journal, or a record cut short by a crash
+        }
+        return records;
+    }
+
+    private void writeRecord(DataOutputStream out, Record record) throws IOException {
+        out.writeUTF(record.getCommitId());
+        out.writeUTF(record.getChangeId());
+        out.writeUTF(record.getChangeKey());
+        out.writeByte(record.getStatus().ordinal());
+        out.writeLong(record.getTimestamp());
+    }
+
+    private Record readRecord(DataInputStream in) throws IOException {
+        String commitId = in.readUTF(), changeId = in.readUTF(), changeKey = in.readUTF();
+        int status = in.readByte();
+        if (status < 0 || status >= STATUSES.length) {
+            throw new EOFException("Unknown review status: " + status); // treat as a corrupt tail
+        }
+        return new Record(commitId, changeId, changeKey, STATUSES[status], in.readLong());
+    }
+
+    private File getFile(String projectId) {
+        StringBuilder name = new StringBuilder();
+        for (char c : projectId.toCharArray()) {
+            name.append(Character.isLetterOrDigit(c) || c == '-' || c == '_' ? c : '_');
+        }
+        return new File(directory, name.append('-').append(Integer.toHexString(projectId.hashCode())).append(".reviews").toString());
+    }
+
+
+    /**
+     * A review decision: the change that was reviewed, its new review status, and when it was reviewed
+     */
+    public static final class Record {
+        private final String commitId, changeId, changeKey;
+        private final ReviewStatus status;
+        private final long timestamp;
+
+        private Record(String commitId, String changeId, String changeKey, ReviewStatus status, long timestamp) {
+            this.commitId = checkNotNull(commitId);
+            this.changeId = checkNotNull(changeId);
+            this.changeKey = checkNotNull(changeKey);
+            this.status = checkNotNull(status);
+            this.timestamp = timestamp;
+        }
+
+        public String getCommitId() {
+            return commitId;
+        }
+
+        public String getChangeId() {
+            return changeId;
+        }
+
+        public String getChangeKey() {
+            return changeKey;
+        }
+
+        public ReviewStatus getStatus() {
+            return status;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("commitId", commitId)
+                    .add("changeId", changeId)
+                    .add("status", status)
+                    .add("timestamp", timestamp)
+                    .toString();
+        }
+    }
+}
@@ -2,7 +2,9 @@ package org.protege.editor.owl.client.diff.model;
 
 import org.semanticweb.owlapi.model.OWLOntologyChange;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Rafael Gonçalves <br>
@@ -18,6 +20,15 @@ public interface ReviewManager {
      */
     void setReviewStatus(Change c, ReviewStatus status);
 
+    /**
+     * Set the specified review status for all the given changes, and notify diff listeners once with
+     * {@link LogDiffEvent#CHANGE_REVIEWED} if any review status changed
+     *
+     * @param changes   Collection of changes
+     * @param status    Review status
+     */
+    void setReviewStatus(Collection<Change> changes, ReviewStatus status);
+
     /**
      * Check whether the review of the specified change has changed since its initial state
      *
@@ -34,7 +45,8 @@ public interface ReviewManager {
     boolean hasUncommittedReviews();
 
     /**
-     * Get the list of ontology changes derived from the uncommitted reviews
+     * Get the list of ontology changes derived from the uncommitted reviews, reduced to their net effect on the
+     * ontology (see {@link NetChangeReducer})
      *
      * @return List of OWL ontology changes derived from uncommitted reviews
      */
@@ -45,4 +57,28 @@ public interface ReviewManager {
      */
     void clearUncommittedReviews();
 
+    /**
+     * Read the uncommitted reviews recorded in the review journal of the active project, and find the given
+     * changes they apply to. This does not modify any review, and may block while the journal is read, so it
+     * should be called off the event dispatch thread
+     *
+     * @param changes   Changes of the diff, e.g., as it will be once rebuilt
+     * @return Review status of each reviewed change
+     */
+    Map<Change, ReviewStatus> readReviews(Collection<Change> changes);
+
+    /**
+     * Discard the reviews of changes that are no longer in the diff (e.g., after it is rebuilt), and restore the
+     * given uncommitted reviews, as read by {@link #readReviews(Collection)}
+     *
+     * @param reviews   Review status of each reviewed change
+     */
+    void restoreReviews(Map<Change, ReviewStatus> reviews);
+
+    /**
+     * Notify that the reviews have been committed, so that the review journal only needs to keep the
+     * reviews that are still uncommitted
+     */
+    void reviewsCommitted();
+
 }
@@ -7,6 +7,7 @@ import org.semanticweb.owlapi.model.*;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
@@ -14,58 +15,216 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * Stanford Center for Biomedical Informatics Research
  */
 public class ReviewManagerImpl implements ReviewManager {
-    private Map<ChangeId,ReviewStatus> newReviews = new HashMap<>();
-    private Map<ChangeId,ReviewStatus> reviews = new HashMap<>();
+    private static final byte NO_REVIEW = -1;
+    private static final ReviewStatus[] STATUSES = ReviewStatus.values();
+    // the initial and new review statuses of changes are kept by change ordinal (see Change#getOrdinal()),
+    // as status ordinals, with NO_REVIEW where a change has no new review
+    private byte[] initialStatus = new byte[0];
+    private byte[] newStatus = new byte[0];
+    private int uncommittedReviews;
     private LogDiff diff;
+    private LogDiffManager diffManager;
+    private ReviewJournal journal;
 
     /**
      * Constructor
      *
      * @param diff  Log diff engine
+     * @param diffManager   Diff manager, notified when reviews are changed in bulk
      */
-    public ReviewManagerImpl(LogDiff diff) {
+    public ReviewManagerImpl(LogDiff diff, LogDiffManager diffManager) {
         this.diff = checkNotNull(diff);
+        this.diffManager = checkNotNull(diffManager);
+    }
+
+    /**
+     * Set the journal where review decisions are recorded until they are committed
+     *
+     * @param journal   Review journal
+     */
+    public void setJournal(ReviewJournal journal) {
+        this.journal = checkNotNull(journal);
     }
 
     @Override
     public void setReviewStatus(Change c, ReviewStatus status) {
         checkNotNull(c); checkNotNull(status);
+        review(c, status);
+        journal(Collections.singletonList(ReviewJournal.createRecord(c, status)));
+    }
 
-        // gather initial status of the newly reviewed change
-        if(!newReviews.containsKey(c.getId())) {
-            reviews.put(c.getId(), c.getReviewStatus());
+    @Override
+    public void setReviewStatus(Collection<Change> changes, ReviewStatus status) {
+        checkNotNull(changes); checkNotNull(status);
+        ensureCapacity(diff.getOrdinalCount());
+        List<ReviewJournal.Record> records = new ArrayList<>();
+        List<Change> reviewed = new ArrayList<>();
+        for (Change c : changes) {
+            if (c.getReviewStatus() != status) {
+                records.add(ReviewJournal.createRecord(c, status));
+                reviewed.add(c);
+            }
+            review(c, status);
+        }
+        if (!records.isEmpty()) {
+            journal(records);
+            diffManager.statusChanged(LogDiffEvent.CHANGE_REVIEWED, DiffDelta.modified(reviewed));
         }
+    }
 
+    private void review(Change c, ReviewStatus status) {
+        int ordinal = c.getOrdinal();
+        checkArgument(ordinal >= 0, "Change %s is not in the diff", c.getId());
+        ensureCapacity(ordinal + 1);
+        // gather initial status of the newly reviewed change
+        if (newStatus[ordinal] == NO_REVIEW) {
+            initialStatus[ordinal] = (byte) c.getReviewStatus().ordinal();
+        } else {
+            uncommittedReviews--;
+        }
         // if new review does not differ from initial state, no real review change occurred
-        if(reviews.get(c.getId()).equals(status)) {
-            newReviews.remove(c.getId());
+        if (initialStatus[ordinal] == status.ordinal()) {
+            newStatus[ordinal] = NO_REVIEW;
         } else {
-            newReviews.put(c.getId(), status);
+            newStatus[ordinal] = (byte) status.ordinal();
+            uncommittedReviews++;
         }
         c.setReviewStatus(status);
     }
 
+    private void journal(List<ReviewJournal.Record> records) {
+        Optional<String> projectId = diffManager.getActiveProjectId();
+        if (journal != null && projectId.isPresent()) {
+            journal.append(projectId.get(), records);
+        }
+    }
+
     @Override
-    public boolean reviewChanged(Change c) {
-        if(reviews.get(c.getId()) != null && newReviews.get(c.getId()) != null) {
-            if (!reviews.get(c.getId()).equals(newReviews.get(c.getId()))) {
-                return true;
+    public Map<Change, ReviewStatus> readReviews(Collection<Change> changes) {
+        checkNotNull(changes);
+        Optional<String> projectId = diffManager.getActiveProjectId();
+        if (journal == null || !projectId.isPresent()) {
+            return Collections.emptyMap();
+        }
+        List<ReviewJournal.Record> records = journal.read(projectId.get());
+        if (records.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        // the last decision on each change is the one that counts
+        Map<String, ReviewJournal.Record> decisions = new LinkedHashMap<>();
+        for (ReviewJournal.Record record : records) {
+            String key = record.getCommitId() + " " + record.getChangeKey();
+            decisions.remove(key);
+            decisions.put(key, record);
+        }
+        Set<String> commitIds = decisions.values().stream().map(ReviewJournal.Record::getCommitId).collect(Collectors.toSet());
+        Map<String, Change> changesById = new HashMap<>();
+        Map<String, Map<String, Change>> changesByKey = new HashMap<>();
+        for (Change c : changes) {
+            String commitId = c.getCommitMetadata().getCommitId().get();
+            if (commitIds.contains(commitId)) {
+                changesById.put(c.getId().get(), c);
+                changesByKey.computeIfAbsent(commitId, k -> new HashMap<>()).put(ReviewJournal.getChangeKey(c), c);
             }
         }
-        return false;
+        Map<Change, ReviewStatus> reviews = new LinkedHashMap<>();
+        for (ReviewJournal.Record record : decisions.values()) {
+            Change c = changesById.get(record.getChangeId());
+            if (c == null) {
+                // the change identifiers differ if the diff was computed anew; find the change by its content
+                c = changesByKey.getOrDefault(record.getCommitId(), Collections.emptyMap()).get(record.getChangeKey());
+            }
+            if (c != null) {
+                reviews.put(c, record.getStatus());
+            }
+        }
+        return reviews;
+    }
+
+    @Override
+    public void restoreReviews(Map<Change, ReviewStatus> reviews) {
+        checkNotNull(reviews);
+        resetReviews();
+        List<Change> reviewed = new ArrayList<>();
+        for (Map.Entry<Change, ReviewStatus> review : reviews.entrySet()) {
+            Change c = review.getKey();
+            if (diff.getChange(c.getId()) == c && c.getReviewStatus() != review.getValue()) {
+                review(c, review.getValue());
+                reviewed.add(c);
+            }
+        }
+        Optional<String> projectId = diffManager.getActiveProjectId();
+        if (journal != null && projectId.isPresent() && !reviews.isEmpty()) {
+            journal.compact(projectId.get(), getNewReviewRecords());
+        }
+        if (!reviewed.isEmpty()) {
+            diffManager.statusChanged(LogDiffEvent.CHANGE_REVIEWED, DiffDelta.modified(reviewed));
+        }
+    }
+
+    @Override
+    public void reviewsCommitted() {
+        Optional<String> projectId = diffManager.getActiveProjectId();
+        if (journal != null && projectId.isPresent()) {
+            journal.compact(projectId.get(), getNewReviewRecords());
+        }
+    }
+
+    private List<ReviewJournal.Record> getNewReviewRecords() {
+        List<ReviewJournal.Record> records = new ArrayList<>();
+        for(int i = 0, n = getReviewedOrdinalCount(); i < n; i++) {
+            if(newStatus[i] != NO_REVIEW) {
+                Change c = diff.getChange(i);
+                if (c != null) {
+                    records.add(ReviewJournal.createRecord(c, STATUSES[newStatus[i]]));
+                }
+            }
+        }
+        return records;
+    }
+
+    private void resetReviews() {
+        Arrays.fill(newStatus, NO_REVIEW);
+        uncommittedReviews = 0;
+    }
+
+    /**
+     * Get the number of change ordinals that reviews may be kept for, i.e., the ordinals given by the diff
+     * that the status arrays hold
+     *
+     * @return Number of change ordinals
+     */
+    private int getReviewedOrdinalCount() {
+        return Math.min(newStatus.length, diff.getOrdinalCount());
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > newStatus.length) {
+            int oldLength = newStatus.length;
+            int length = Math.max(capacity, Math.max(64, oldLength * 2));
+            initialStatus = Arrays.copyOf(initialStatus, length);
+            newStatus = Arrays.copyOf(newStatus, length);
+            Arrays.fill(newStatus, oldLength, length, NO_REVIEW);
+        }
+    }
+
+    @Override
+    public boolean reviewChanged(Change c) {
+        int ordinal = c.getOrdinal();
+        return ordinal >= 0 && ordinal < newStatus.length && newStatus[ordinal] != NO_REVIEW;
     }
 
     @Override
     public boolean hasUncommittedReviews() {
-        return !newReviews.isEmpty();
+        return uncommittedReviews > 0;
     }
 
     @Override
     public List<OWLOntologyChange> getReviewOntologyChanges() {
         List<OWLOntologyChange> changes = new ArrayList<>();
-        for(ChangeId id : newReviews.keySet()) {
-            Change c = diff.getChange(id);
-            if(newReviews.get(c.getId()).equals(ReviewStatus.REJECTED)) {
+        for(int i = 0, n = getReviewedOrdinalCount(); i < n; i++) {
+            Change c = (newStatus[i] == ReviewStatus.REJECTED.ordinal() ? diff.getChange(i) : null);
+            if(c != null) {
                 Set<OWLOntologyChange> ontChanges = c.getChanges();
                 if (c.getBaselineChange().isPresent()) {
                     OWLOntologyChange baseline = c.getBaselineChange().get();
@@ -74,7 +233,8 @@ public class ReviewManagerImpl implements ReviewManager {
                 changes.addAll(ontChanges.stream().map(this::getReverseChange).collect(Collectors.toList()));
             }
         }
-        return changes;
+        // overlapping rejected changes may undo each other, or undo what is no longer in the ontology
+        return NetChangeReducer.reduce(changes);
     }
 
     private OWLOntologyChange getReverseChange(OWLOntologyChange change) {
@@ -110,11 +270,27 @@ public class ReviewManagerImpl implements ReviewManager {
 
     @Override
     public void clearUncommittedReviews() {
-        for(ChangeId id : newReviews.keySet()) {
-            Change c = diff.getChange(id);
-            c.setReviewStatus(ReviewStatus.PENDING);
+        List<ReviewJournal.Record> records = new ArrayList<>();
+        for(int i = 0, n = getReviewedOrdinalCount(); i < n; i++) {
+            Change c = (newStatus[i] != NO_REVIEW ? diff.getChange(i) : null);
+            if(c != null) {
+                c.setReviewStatus(ReviewStatus.PENDING);
+                records.add(ReviewJournal.createRecord(c, ReviewStatus.PENDING));
+            }
+        }
+        resetReviews();
+        journal(records);
+    }
+
+    private Map<ChangeId,ReviewStatus> getNewReviews() {
+        Map<ChangeId,ReviewStatus> newReviews = new LinkedHashMap<>();
+        for(int i = 0, n = getReviewedOrdinalCount(); i < n; i++) {
+            Change c = (newStatus[i] != NO_REVIEW ? diff.getChange(i) : null);
+            if(c != null) {
+                newReviews.put(c.getId(), STATUSES[newStatus[i]]);
+            }
         }
-        newReviews.clear();
+        return newReviews;
     }
 
     @Override
@@ -122,20 +298,18 @@ public class ReviewManagerImpl implements ReviewManager {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ReviewManagerImpl that = (ReviewManagerImpl) o;
-        return Objects.equal(newReviews, that.newReviews) &&
-                Objects.equal(reviews, that.reviews);
+        return Objects.equal(getNewReviews(), that.getNewReviews());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(newReviews, reviews);
+        return Objects.hashCode(getNewReviews());
     }
 
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
-                .add("newReviews", newReviews)
-                .add("reviews", reviews)
+                .add("newReviews", getNewReviews())
                 .toString();
     }
 }
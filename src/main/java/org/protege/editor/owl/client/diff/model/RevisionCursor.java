@@ -0,0 +1,135 @@
+package org.protege.editor.owl.client.diff.model;
+
+import com.google.common.base.MoreObjects;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.RevisionMetadata;
+import org.semanticweb.owlapi.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A cursor that walks a change history snapshot once, from the revision following a given start revision
+ * up to the head revision, yielding the metadata and ontology changes of each revision in turn. The
+ * ontology changes of a revision are rebound to the target ontology as they are read, without
+ * materializing a cropped change history per revision.
+ */
+public final class RevisionCursor implements Iterator<RevisionCursor.Entry> {
+    private static final Logger logger = LoggerFactory.getLogger(RevisionCursor.class.getName());
+    private final HistorySnapshot history;
+    private final OWLOntology ontology;
+    private final DocumentRevision head;
+    private DocumentRevision next;
+
+    /**
+     * Constructor
+     *
+     * @param history   Change history snapshot, whose changes are rebound to its ontology
+     * @param start Revision after which to start reading (exclusive), which should not precede the start
+     *              revision of the snapshot
+     */
+    public RevisionCursor(HistorySnapshot history, DocumentRevision start) {
+        this.history = checkNotNull(history);
+        this.ontology = checkNotNull(history.getOntology());
+        this.head = history.getHeadRevision();
+        this.next = checkNotNull(start).next();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next.behindOrSameAs(head);
+    }
+
+    @Override
+    public Entry next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        DocumentRevision revision = next;
+        next = revision.next();
+        RevisionMetadata metadata = history.getMetadataForRevision(revision);
+        List<OWLOntologyChange> changes = history.getChangesForRevision(revision);
+        List<OWLOntologyChange> targetChanges = new ArrayList<>(changes.size());
+        for (OWLOntologyChange change : changes) {
+            OWLOntologyChange targetChange = getTargetChange(change);
+            if (targetChange != null) {
+                targetChanges.add(targetChange);
+            }
+        }
+        return new Entry(revision, metadata, targetChanges);
+    }
+
+    /**
+     * Get the counterpart of the given OWL ontology change that applies to the target ontology
+     *
+     * @param change    OWL ontology change
+     * @return OWL ontology change on the target ontology
+     */
+    private OWLOntologyChange getTargetChange(OWLOntologyChange change) {
+        if (change.getOntology() == ontology) {
+            return change;
+        }
+        if (change.isAxiomChange()) {
+            if (change.isAddAxiom()) {
+                return new AddAxiom(ontology, change.getAxiom());
+            } else {
+                return new RemoveAxiom(ontology, change.getAxiom());
+            }
+        } else if (change instanceof AddImport) {
+            return new AddImport(ontology, ((ImportChange) change).getImportDeclaration());
+        } else if (change instanceof RemoveImport) {
+            return new RemoveImport(ontology, ((ImportChange) change).getImportDeclaration());
+        } else if (change instanceof AddOntologyAnnotation) {
+            return new AddOntologyAnnotation(ontology, ((AnnotationChange) change).getAnnotation());
+        } else if (change instanceof RemoveOntologyAnnotation) {
+            return new RemoveOntologyAnnotation(ontology, ((AnnotationChange) change).getAnnotation());
+        } else if (change instanceof SetOntologyID) {
+            return new SetOntologyID(ontology, ((SetOntologyID) change).getNewOntologyID());
+        }
+        logger.error("Unhandled ontology change type for change: " + change);
+        return null;
+    }
+
+
+    /**
+     * The metadata and ontology changes of a single revision
+     */
+    public static final class Entry {
+        private final DocumentRevision revision;
+        private final RevisionMetadata metadata;
+        private final List<OWLOntologyChange> changes;
+
+        private Entry(DocumentRevision revision, RevisionMetadata metadata, List<OWLOntologyChange> changes) {
+            this.revision = checkNotNull(revision);
+            this.metadata = checkNotNull(metadata);
+            this.changes = checkNotNull(changes);
+        }
+
+        public DocumentRevision getRevision() {
+            return revision;
+        }
+
+        public RevisionMetadata getMetadata() {
+            return metadata;
+        }
+
+        public List<OWLOntologyChange> getChanges() {
+            return changes;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("revision", revision)
+                    .add("metadata", metadata)
+                    .add("changes", changes.size())
+                    .toString();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.protege.editor.owl.client.diff.model;
+
+import org.protege.editor.owl.model.OWLModelManager;
+import org.semanticweb.owlapi.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.semanticweb.owlapi.search.Searcher.annotationObjects;
+
+/**
+ * Caches the display labels of change subjects: the rdfs:label of classes, and the short form of the IRI of
+ * other entities. Labels are computed on demand, and can be computed ahead of time in the background for the
+ * subjects of the changes about to be displayed. The labels of the entities in the signature of an ontology
+ * change (including the subject of an annotation assertion) are dropped when the change is applied, and all
+ * labels are dropped when the active ontology changes. Lookups are thread-safe.
+ */
+public final class SubjectLabelCache {
+    private static final Logger logger = LoggerFactory.getLogger(SubjectLabelCache.class.getName());
+    private final OWLModelManager modelManager;
+    private final EntityResolver entityResolver;
+    private final ConcurrentMap<OWLObject, Optional<String>> labels = new ConcurrentHashMap<>();
+    private final AtomicInteger generation = new AtomicInteger();
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Revision history label loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile OWLOntology ontology;
+
+    /**
+     * Constructor
+     *
+     * @param modelManager  OWL model manager
+     * @param entityResolver    Entity resolver
+     */
+    public SubjectLabelCache(OWLModelManager modelManager, EntityResolver entityResolver) {
+        this.modelManager = checkNotNull(modelManager);
+        this.entityResolver = checkNotNull(entityResolver);
+    }
+
+    /**
+     * Get the display label of the given change subject
+     *
+     * @param subject   Change subject, which is an IRI or a class
+     * @return Label, or an empty optional if the subject is a class without an rdfs:label
+     */
+    public Optional<String> getLabel(OWLObject subject) {
+        checkNotNull(subject);
+        OWLOntology activeOntology = modelManager.getActiveOntology();
+        if (activeOntology != ontology) {
+            clear();
+            ontology = activeOntology;
+        }
+        return labels.computeIfAbsent(subject, s -> computeLabel(s, activeOntology));
+    }
+
+    /**
+     * Compute the labels of the subjects of the given changes in the background, superseding any labels
+     * still being computed
+     *
+     * @param changes   Collection of changes
+     */
+    public void preload(Collection<Change> changes) {
+        List<OWLObject> subjects = changes.stream().map(c -> c.getDetails().getSubject())
+                .filter(s -> s instanceof IRI || s instanceof OWLClass).distinct().collect(Collectors.toList());
+        int preloadGeneration = generation.incrementAndGet();
+        loader.execute(() -> {
+            try {
+                for (OWLObject subject : subjects) {
+                    if (generation.get() != preloadGeneration) {
+                        return; // superseded
+                    }
+                    getLabel(subject);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Unable to compute change subject labels", e);
+            }
+        });
+    }
+
+    /**
+     * Drop the labels of the entities in the signature of the given ontology changes
+     *
+     * @param changes   List of ontology changes
+     * @return Labels that were dropped, by subject
+     */
+    public Map<OWLObject, Optional<String>> invalidate(List<? extends OWLOntologyChange> changes) {
+        OWLDataFactory dataFactory = modelManager.getOWLDataFactory();
+        Map<OWLObject, Optional<String>> dropped = new HashMap<>();
+        for (OWLOntologyChange change : changes) {
+            for (OWLEntity e : change.getSignature()) {
+                drop(e, dropped);
+                drop(e.getIRI(), dropped);
+            }
+            if (change.isAxiomChange() && change.getAxiom() instanceof OWLAnnotationAssertionAxiom) {
+                OWLAnnotationSubject subject = ((OWLAnnotationAssertionAxiom) change.getAxiom()).getSubject();
+                if (subject instanceof IRI) {
+                    drop(subject, dropped);
+                    drop(dataFactory.getOWLClass((IRI) subject), dropped); // classes are equal by IRI
+                }
+            }
+        }
+        return dropped;
+    }
+
+    private void drop(OWLObject subject, Map<OWLObject, Optional<String>> dropped) {
+        Optional<String> label = labels.remove(subject);
+        if (label != null) {
+            dropped.put(subject, label);
+        }
+    }
+
+    /**
+     * Drop all labels, and stop computing labels in the background
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        labels.clear();
+        ontology = null;
+    }
+
+    private Optional<String> computeLabel(OWLObject subject, OWLOntology ontology) {
+        if (subject instanceof IRI) {
+            IRI iri = (IRI) subject;
+            OWLEntity entity = entityResolver.getEntity(iri).orElse(null);
+            if (entity instanceof OWLClass) {
+                return getRDFSLabel((OWLClass) entity, ontology);
+            }
+            return Optional.of(iri.getShortForm());
+        } else if (subject instanceof OWLClass) {
+            return getRDFSLabel((OWLClass) subject, ontology);
+        }
+        return Optional.of(subject.toString());
+    }
+
+    private Optional<String> getRDFSLabel(OWLClass cls, OWLOntology ontology) {
+        String rdfsLabel = null;
+        OWLAnnotationProperty labelProperty = ontology.getOWLOntologyManager().getOWLDataFactory().getRDFSLabel();
+        for (OWLAnnotation annotation : annotationObjects(ontology.getAnnotationAssertionAxioms(cls.getIRI()).stream(), labelProperty)
+                .collect(Collectors.toSet())) {
+            Optional<OWLLiteral> literal = annotation.getValue().asLiteral();
+            if (literal.isPresent()) {
+                rdfsLabel = literal.get().getLiteral();
+            }
+        }
+        return Optional.ofNullable(rdfsLabel);
+    }
+}
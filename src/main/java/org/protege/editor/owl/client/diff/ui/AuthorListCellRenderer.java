@@ -1,63 +1,98 @@
 package org.protege.editor.owl.client.diff.ui;
 
+import org.protege.editor.owl.client.diff.model.LogDiff;
 import org.protege.editor.owl.client.diff.model.LogDiffManager;
 
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.Font;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.swing.BoxLayout;
 import javax.swing.DefaultListCellRenderer;
+import javax.swing.Icon;
 import javax.swing.JLabel;
 import javax.swing.JList;
 import javax.swing.JPanel;
+import javax.swing.border.Border;
 import javax.swing.border.EmptyBorder;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 /**
  * @author Rafael Gonçalves <br>
  * Stanford Center for Biomedical Informatics Research
  */
 public class AuthorListCellRenderer extends DefaultListCellRenderer {
+    private static final Border LABEL_BORDER = new EmptyBorder(0, 7, 0, 0), CONFLICT_LABEL_BORDER = new EmptyBorder(20, 7, 23, 20);
+    private final LogDiff diff;
+    private final Icon userIcon = GuiUtils.getIcon(GuiUtils.USER_ICON_FILENAME, 20, 20),
+            usersIcon = GuiUtils.getIcon(GuiUtils.USERS_ICON_FILENAME, 20, 20),
+            warningIcon = GuiUtils.getIcon(GuiUtils.WARNING_ICON_FILENAME, 23, 23);
+    private final JPanel panel = new JPanel();
+    private final JLabel conflictLabel = new JLabel();
+    private final Map<String, String[]> texts = new HashMap<>();
+    private Font font, boldFont;
+
+    /**
+     * Constructor
+     *
+     * @param diff  Diff engine, from which the commit and conflict counts of authors are read
+     */
+    public AuthorListCellRenderer(LogDiff diff) {
+        this.diff = checkNotNull(diff);
+        panel.setLayout(new BoxLayout(panel, BoxLayout.X_AXIS));
+        panel.add(this);
+        panel.add(conflictLabel);
+        panel.setBackground(Color.WHITE);
+        conflictLabel.setBorder(CONFLICT_LABEL_BORDER);
+        conflictLabel.setIcon(warningIcon);
+        conflictLabel.setIconTextGap(7);
+        conflictLabel.setForeground(Color.red);
+    }
+
+    /**
+     * Drop the display text of authors, which should be called when the commit or conflict counts may have changed
+     */
+    public void clearText() {
+        texts.clear();
+    }
 
     @Override
     public Component getListCellRendererComponent(JList list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
         JLabel label = (JLabel) super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
         String user = (String) value;
-        List<Integer> countList = LogDiffManager.currentMan().getCount(user);
-        if(user.equals(LogDiffManager.ALL_AUTHORS)) {
-            label.setIcon(GuiUtils.getIcon(GuiUtils.USERS_ICON_FILENAME, 20, 20));
-            label.setFont(getFont().deriveFont(Font.BOLD));
-        }
-        else {        	
-            label.setIcon(GuiUtils.getIcon(GuiUtils.USER_ICON_FILENAME, 20, 20));
-        }
-        label.setText(user + "(" +  countList.get(0) + ")");
-        label.setBorder(new EmptyBorder(0, 7, 0, 0));
+        String[] text = texts.computeIfAbsent(user, this::getText);
+        boolean allAuthors = user.equals(LogDiffManager.ALL_AUTHORS);
+        Font labelFont = getLabelFont(allAuthors);
+        label.setIcon(allAuthors ? usersIcon : userIcon);
+        label.setFont(labelFont);
+        label.setText(text[0]);
+        label.setBorder(LABEL_BORDER);
         label.setIconTextGap(7);
-        
-        JPanel panel = new JPanel();
-        panel.setLayout(new BoxLayout(panel, BoxLayout.X_AXIS));
-        panel.add(label);
-        panel.setBackground(Color.WHITE);
-        
-        int conflictCount = countList.size() > 1? countList.get(1) : 0;
-        if (conflictCount > 0) {
-	        JLabel conflictLabel = new JLabel();
-	        conflictLabel.setBorder(new EmptyBorder(20, 7, 23, 20));
-	        conflictLabel.setIcon(GuiUtils.getIcon(GuiUtils.WARNING_ICON_FILENAME, 23, 23));
-	        conflictLabel.setIconTextGap(7);
-	        if (user.equals(LogDiffManager.ALL_AUTHORS)) {
-	        	conflictLabel.setFont(getFont().deriveFont(Font.BOLD));
-	        }
-	        conflictLabel.setForeground(Color.red);
-	        conflictLabel.setText("(" + conflictCount + ")");
-	        panel.add(conflictLabel);
+
+        if (text[1] != null) {
+            conflictLabel.setFont(labelFont);
+            conflictLabel.setText(text[1]);
+            conflictLabel.setVisible(true);
+        } else {
+            conflictLabel.setVisible(false);
         }
         return panel;
-        
-        
-        //return label;
     }
 
+    private String[] getText(String user) {
+        int conflictCount = diff.getConflictCountForUser(user);
+        return new String[] { user + "(" +  diff.getCommitCountForUser(user) + ")", conflictCount > 0 ? "(" + conflictCount + ")" : null };
+    }
+
+    private Font getLabelFont(boolean bold) {
+        Font listFont = getFont();
+        if (listFont != font) {
+            font = listFont;
+            boldFont = listFont.deriveFont(Font.BOLD);
+        }
+        return bold ? boldFont : font;
+    }
 }
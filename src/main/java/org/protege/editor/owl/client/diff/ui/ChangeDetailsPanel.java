@@ -7,18 +7,8 @@ import org.protege.editor.owl.model.OWLModelManager;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.event.ChangeEvent;
-import javax.swing.event.ListSelectionEvent;
-import javax.swing.event.TableColumnModelEvent;
-import javax.swing.event.TableColumnModelListener;
-import javax.swing.event.TableModelEvent;
-import javax.swing.event.TableModelListener;
-import javax.swing.table.JTableHeader;
-import javax.swing.table.TableColumn;
 
 import java.awt.*;
-import java.awt.event.MouseAdapter;
-import java.awt.event.MouseEvent;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -30,6 +20,9 @@ public class ChangeDetailsPanel extends JPanel implements Disposable {
     private static final long serialVersionUID = -5433982406494139888L;
     private OWLEditorKit editorKit;
     private LogDiffManager diffManager;
+    private ChangeDetailsTable table;
+    private JScrollPane scrollPane;
+    private ChangeDetailsTableModel matchingTableModel, multipleTableModel;
 
     /**
      * Constructor
@@ -55,13 +48,13 @@ public class ChangeDetailsPanel extends JPanel implements Disposable {
         public void statusChanged(LogDiffEvent event) {
             if (event.equals(LogDiffEvent.CHANGE_SELECTION_CHANGED)) {
                 if(!diffManager.getSelectedChanges().isEmpty()) {
-                    removeAll();
                     createContents();
                 }
             }
             else if(event.equals(LogDiffEvent.AUTHOR_SELECTION_CHANGED) || event.equals(LogDiffEvent.COMMIT_SELECTION_CHANGED) ||
                     event.equals(LogDiffEvent.ONTOLOGY_UPDATED) || event.equals(LogDiffEvent.COMMIT_OCCURRED)) {
                 removeAll();
+                revalidate();
                 repaint();
             }
             // rpc: when review view is active and a change is reviewed, recreate the review panel
@@ -72,162 +65,46 @@ public class ChangeDetailsPanel extends JPanel implements Disposable {
         if(!diffManager.getSelectedChanges().isEmpty()) {
             Change change = diffManager.getFirstSelectedChange();
             if (change != null) {
-                addDetailsTable(change);
+                showDetails(change);
                 revalidate();
             }
         }
     }
 
-    private void addDetailsTable(Change change) {
+    /**
+     * Show the details of the given change. The table and its models are created once and reused across
+     * selections, with the model switched only when the kind of change differs from the one last shown
+     *
+     * @param change    Change
+     */
+    private void showDetails(Change change) {
         ChangeDetailsTableModel tableModel;
         if(change.getBaselineChange().isPresent()) {
-            tableModel = new MatchingChangeDetailsTableModel();
-        }
-        else {
-            tableModel = new MultipleChangeDetailsTableModel();
-        }
-        
-        ChangeDetailsTable table = new ChangeDetailsTable(tableModel, editorKit);
-        
-        ColumnListener cl = new ColumnListener(){
-
-            @Override
-            public void columnMoved(int oldLocation, int newLocation) {
-            	
+            if(matchingTableModel == null) {
+                matchingTableModel = new MatchingChangeDetailsTableModel();
             }
-
-            @Override
-            public void columnResized(int column, int newWidth) {
-            	TableColumn c = table.getColumnModel().getColumn(column);
-                updateRowHeights(column, c.getWidth(), table);
-            }
-
-        };
-
-        table.getColumnModel().addColumnModelListener(cl);
-        table.getTableHeader().addMouseListener(cl);
-		table.getModel().addTableModelListener(new TableModelListener() {
-
-			public void tableChanged(TableModelEvent e) {
-				EventQueue.invokeLater(new Runnable() {
-					@Override
-					public void run() {
-						int columnCount = table.getColumnModel().getColumnCount();
-						for (int i = 0; i < columnCount; i++) {
-							TableColumn c = table.getColumnModel().getColumn(i);
-							updateRowHeights(i, c.getWidth(), table);
-						}
-					}
-
-				});
-
-			}
-		});
-        
-        tableModel.setChange(change);
-
-        JScrollPane scrollPane = new JScrollPane(table);
-        scrollPane.setBorder(GuiUtils.EMPTY_BORDER);
-        add(scrollPane, BorderLayout.CENTER);
-    }
-    
-	public static void updateRowHeights(int column, int width, JTable table){
-	    for (int row = 0; row < table.getRowCount(); row++) {
-	        int rowHeight = table.getRowHeight();
-	        Component comp = table.prepareRenderer(table.getCellRenderer(row, column), row, column);
-	        Dimension d = comp.getPreferredSize();
-	        comp.setSize(new Dimension(width, d.height));
-	        d = comp.getPreferredSize();
-	        rowHeight = Math.max(rowHeight, d.height);
-	        table.setRowHeight(row, rowHeight);
-	    }
-	}
-    abstract class ColumnListener extends MouseAdapter implements TableColumnModelListener {
-
-        private int oldIndex = -1;
-        private int newIndex = -1;
-        private boolean dragging = false;
-
-        private boolean resizing = false;
-        private int resizingColumn = -1;
-        private int oldWidth = -1;
-
-        @Override
-        public void mousePressed(MouseEvent e) {
-            // capture start of resize
-            if(e.getSource() instanceof JTableHeader) {
-                JTableHeader header = (JTableHeader)e.getSource();
-                TableColumn tc = header.getResizingColumn();
-                if(tc != null) {
-                    resizing = true;
-                    JTable table = header.getTable();
-                    resizingColumn = table.convertColumnIndexToView( tc.getModelIndex());
-                    oldWidth = tc.getPreferredWidth();
-                } else {
-                    resizingColumn = -1;
-                    oldWidth = -1;
-                }
-            }   
+            tableModel = matchingTableModel;
         }
-
-        @Override
-        public void mouseReleased(MouseEvent e) {
-            // column moved
-            if(dragging && oldIndex != newIndex) {
-                columnMoved(oldIndex, newIndex);
-            }
-            dragging = false;
-            oldIndex = -1;
-            newIndex = -1;
-
-            // column resized
-            if(resizing) {
-                if(e.getSource() instanceof JTableHeader) {
-                    JTableHeader header = (JTableHeader)e.getSource();
-                    TableColumn tc = header.getColumnModel().getColumn(resizingColumn);
-                    if(tc != null) {
-                        int newWidth = tc.getPreferredWidth();
-                        if(newWidth != oldWidth) {
-                            columnResized(resizingColumn, newWidth);
-                        }
-                    }
-                }   
+        else {
+            if(multipleTableModel == null) {
+                multipleTableModel = new MultipleChangeDetailsTableModel();
             }
-            resizing = false;
-            resizingColumn = -1;
-            oldWidth = -1;
-        }
-
-        @Override
-        public void columnAdded(TableColumnModelEvent e) {      
-        }
-
-        @Override
-        public void columnRemoved(TableColumnModelEvent e) {        
+            tableModel = multipleTableModel;
         }
-
-        @Override
-        public void columnMoved(TableColumnModelEvent e) {
-            // capture dragging
-            dragging = true;
-            if(oldIndex == -1){
-                oldIndex = e.getFromIndex();
-            }
-
-            newIndex = e.getToIndex();  
-                 
+        tableModel.setChange(change);
+        if(table == null) {
+            table = new ChangeDetailsTable(tableModel, editorKit);
+            scrollPane = new JScrollPane(table);
+            scrollPane.setBorder(GuiUtils.EMPTY_BORDER);
         }
-
-        @Override
-        public void columnMarginChanged(ChangeEvent e) {
+        else if(table.getModel() != tableModel) {
+            table.setModel(tableModel);
         }
-
-        @Override
-        public void columnSelectionChanged(ListSelectionEvent e) {
+        if(scrollPane.getParent() != this) {
+            removeAll();
+            add(scrollPane, BorderLayout.CENTER);
         }
-
-        public abstract void columnMoved(int oldLocation, int newLocation);
-        public abstract void columnResized(int column, int newWidth);
+        table.scrollRectToVisible(new Rectangle(0, 0, 1, 1));
     }
 
     @SuppressWarnings("unused") // rpc
@@ -3,9 +3,17 @@ package org.protege.editor.owl.client.diff.ui;
 import org.protege.editor.owl.OWLEditorKit;
 
 import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.TableCellRenderer;
+import javax.swing.table.TableColumn;
 import javax.swing.table.TableModel;
 import java.awt.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * @author Rafael Gonçalves <br>
@@ -13,12 +21,18 @@ import java.awt.*;
  */
 public class ChangeDetailsTable extends JTable {
     private static final long serialVersionUID = 6346557554881882633L;
+    private static final int DEFAULT_ROW_HEIGHT = 30, MAX_CACHED_WIDTHS = 8;
+    /* preferred cell heights by model column and column width, for the few most recent widths of each column */
+    private final Map<Integer, Map<Integer, int[]>> cellHeights = new HashMap<>();
+    private final ChangeListener viewportListener = e -> scheduleRowHeightsUpdate();
+    private JViewport viewport;
+    private boolean rowHeightsUpdateScheduled;
 
     public ChangeDetailsTable(TableModel model, OWLEditorKit editorKit) {
         TableCellRenderer renderer = new ChangeDetailsTableCellRenderer(editorKit);
         setModel(model);
         setDefaultRenderer(Object.class, renderer);
-        setRowHeight(30);
+        setRowHeight(DEFAULT_ROW_HEIGHT);
         setShowGrid(false);
         setAlignmentY(SwingConstants.CENTER);
         setRowMargin(0);
@@ -27,4 +41,95 @@ public class ChangeDetailsTable extends JTable {
         setCellSelectionEnabled(false);
         setFocusable(false);
     }
-}
\ No newline at end of file
+
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        super.tableChanged(e);
+        if (cellHeights != null) { // null while the superclass is being constructed
+            cellHeights.clear();
+            scheduleRowHeightsUpdate();
+        }
+    }
+
+    @Override
+    public void columnMarginChanged(ChangeEvent e) {
+        super.columnMarginChanged(e);
+        scheduleRowHeightsUpdate(); // a column was resized
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        Container parent = SwingUtilities.getUnwrappedParent(this);
+        if (parent instanceof JViewport) {
+            viewport = (JViewport) parent;
+            viewport.addChangeListener(viewportListener);
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        if (viewport != null) {
+            viewport.removeChangeListener(viewportListener);
+            viewport = null;
+        }
+        super.removeNotify();
+    }
+
+    private void scheduleRowHeightsUpdate() {
+        if (!rowHeightsUpdateScheduled) {
+            rowHeightsUpdateScheduled = true;
+            SwingUtilities.invokeLater(this::updateRowHeights);
+        }
+    }
+
+    /**
+     * Fit the height of the visible rows to their tallest cell. Rows keep the default height until they are
+     * first shown, and cell heights are only computed once for each column width
+     */
+    private void updateRowHeights() {
+        rowHeightsUpdateScheduled = false;
+        Rectangle visible = getVisibleRect();
+        if (getRowCount() == 0 || visible.isEmpty()) {
+            return;
+        }
+        int firstRow = rowAtPoint(new Point(0, visible.y));
+        int lastRow = rowAtPoint(new Point(0, visible.y + visible.height - 1));
+        if (firstRow < 0) {
+            return;
+        }
+        if (lastRow < 0) {
+            lastRow = getRowCount() - 1;
+        }
+        for (int row = firstRow; row <= lastRow; row++) {
+            int height = getRowHeight();
+            for (int column = 0; column < getColumnCount(); column++) {
+                height = Math.max(height, getCellHeight(row, column));
+            }
+            if (getRowHeight(row) != height) {
+                setRowHeight(row, height);
+            }
+        }
+    }
+
+    private int getCellHeight(int row, int column) {
+        TableColumn tableColumn = getColumnModel().getColumn(column);
+        int width = tableColumn.getWidth();
+        int[] heights = cellHeights.computeIfAbsent(tableColumn.getModelIndex(), c -> new LinkedHashMap<Integer, int[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+                return size() > MAX_CACHED_WIDTHS;
+            }
+        }).computeIfAbsent(width, w -> {
+            int[] h = new int[getRowCount()];
+            Arrays.fill(h, -1);
+            return h;
+        });
+        if (heights[row] < 0) {
+            Component comp = prepareRenderer(getCellRenderer(row, column), row, column);
+            comp.setSize(new Dimension(width, comp.getPreferredSize().height));
+            heights[row] = comp.getPreferredSize().height; // preferred height once wrapped to the column width
+        }
+        return heights[row];
+    }
+}
@@ -7,17 +7,18 @@ import org.protege.editor.owl.model.OWLModelManager;
 
 import javax.swing.*;
 import javax.swing.event.ListSelectionListener;
-import javax.swing.table.AbstractTableModel;
 import javax.swing.table.TableColumn;
-import javax.swing.table.TableModel;
-import javax.swing.table.TableRowSorter;
 import javax.swing.table.TableStringConverter;
 
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -31,7 +32,13 @@ public class ChangesPanel extends JPanel implements Disposable {
     private LogDiffManager diffManager;
     private ChangesTableModel diffTableModel;
     private JTable table;
+    private JProgressBar progressBar;
+    private JPanel progressPanel;
     private LogDiff diff;
+    private LogDiffEvent displayedEvent;
+    private JTextField searchField;
+    private String searchQuery = "";
+    private Set<Change> searchResults = Collections.emptySet();
 
     /**
      * Constructor
@@ -48,7 +55,9 @@ public class ChangesPanel extends JPanel implements Disposable {
         setLayout(new BorderLayout());
         setBorder(GuiUtils.MATTE_BORDER);
 
+        createSearchPanel();
         createDiffTable();
+        createProgressPanel();
     }
 
     private ListSelectionListener rowSelectionListener = e -> {
@@ -59,10 +68,12 @@ public class ChangesPanel extends JPanel implements Disposable {
         Change complexEditChange = null;
         if (!lsm.isSelectionEmpty()) {
             List<Change> selectedChanges = new ArrayList<>();
-            int selectedRowCount = table.getSelectedRowCount();
             int selectedComplexEditCount = 0;
-            for(int i = 0; i < selectedRowCount; i++) {
-                Change change = diffTableModel.getChange(table.convertRowIndexToModel(table.getSelectedRows()[i]));
+            for(int row : table.getSelectedRows()) {
+                Change change = diffTableModel.getChange(table.convertRowIndexToModel(row));
+                if (change == null) {
+                    continue;
+                }
                 selectedChanges.add(change);
                 String comment = change.getCommitMetadata().getComment();
                 if (comment.endsWith(" - SPLIT") || comment.endsWith(" - MERGE") || comment.endsWith(" - RETIRE")) {
@@ -72,8 +83,7 @@ public class ChangesPanel extends JPanel implements Disposable {
                 		
             }
             if (complexEditChange != null) {
-            	List<Change> changes = diffManager.getDiffEngine().getChangesForCommit(complexEditChange.getCommitMetadata());
-            	if (changes != null && changes.size() != selectedComplexEditCount) {
+            	if (diff.getChangeCountForCommit(complexEditChange.getCommitMetadata()) != selectedComplexEditCount) {
             		diffManager.setAllComplexEditChangesSelected(false);
             	} else {
             		diffManager.setAllComplexEditChangesSelected(true);
@@ -91,31 +101,135 @@ public class ChangesPanel extends JPanel implements Disposable {
             if(event.equals(LogDiffEvent.AUTHOR_SELECTION_CHANGED) || event.equals(LogDiffEvent.COMMIT_SELECTION_CHANGED)) {
                 diffManager.clearSelectedChanges();
                 updateDiff(event);
-            } else if(event.equals(LogDiffEvent.COMMIT_OCCURRED)) {
-                updateDiff(event);
-                diffTableModel.clear();
-            }
-            else if(event.equals(LogDiffEvent.ONTOLOGY_UPDATED)) { // TODO incrementally update change indices
-                diff.clear();
-                diff.initDiff();
-                diffTableModel.setChanges(Collections.emptyList());
+            } else if(event.equals(LogDiffEvent.DIFF_UPDATED)) {
+                // refresh the changes of the current selection, which may have been chosen while the diff was being computed
+                if(displayedEvent != null) {
+                    updateDiff(displayedEvent);
+                }
+            } else if(event.equals(LogDiffEvent.DIFF_PROGRESS)) {
+                updateProgress();
             } else if(event.equals(LogDiffEvent.CHANGE_REVIEWED)) {
                 revalidate(); repaint();
             } else if(event.equals(LogDiffEvent.RESET)) {
+                displayedEvent = null;
                 diffTableModel.clear();
             }
+            // the rows are kept when the ontology is updated or a commit occurs, and brought up to date by the
+            // delta of the diff update that follows
+        }
+
+        @Override
+        public void statusChanged(LogDiffEvent event, DiffDelta delta) {
+            if(delta.isReset()) {
+                statusChanged(event);
+            } else if(event.equals(LogDiffEvent.DIFF_UPDATED)) {
+                if(displayedEvent != null) {
+                    if(!searchQuery.isEmpty()) {
+                        searchResults = new HashSet<>(diff.search(searchQuery));
+                    }
+                    diffTableModel.applyDelta(delta, getDisplayFilter(displayedEvent));
+                }
+            } else if(event.equals(LogDiffEvent.CHANGE_REVIEWED)) {
+                diffTableModel.applyDelta(delta, c -> false);
+            } else {
+                statusChanged(event);
+            }
         }
     };
 
+    /**
+     * Get the filter that selects the changes displayed for the given event, among all changes
+     *
+     * @param event Diff event
+     * @return Change filter
+     */
+    private Predicate<Change> getDisplayFilter(LogDiffEvent event) {
+        if(!searchQuery.isEmpty()) {
+            return getSelectionFilter(event).and(searchResults::contains);
+        }
+        return getSelectionFilter(event);
+    }
+
+    private Predicate<Change> getSelectionFilter(LogDiffEvent event) {
+        if(event.equals(LogDiffEvent.AUTHOR_SELECTION_CHANGED)) {
+            String author = diffManager.getSelectedAuthor();
+            if(author == null) {
+                return c -> false;
+            }
+            return c -> author.equals(LogDiffManager.ALL_AUTHORS) || c.getCommitMetadata().getAuthor().equals(author);
+        } else if(event.equals(LogDiffEvent.COMMIT_SELECTION_CHANGED)) {
+            if(diffManager.getSelectedCommit() == null) {
+                return c -> false;
+            }
+            CommitId commitId = diffManager.getSelectedCommit().getCommitId();
+            return c -> c.getCommitMetadata().getCommitId().equals(commitId);
+        }
+        return c -> true;
+    }
+
     private void updateDiff(LogDiffEvent event) {
-        if(diff.getChanges().isEmpty()) {
-            diff.initDiff();
+        displayedEvent = event;
+        List<Change> changesToDisplay;
+        if(searchQuery.isEmpty()) {
+            searchResults = Collections.emptySet();
+            changesToDisplay = diff.getChangesToDisplay(event);
+        } else {
+            // the matching changes are usually far fewer than the changes displayed, so filter those instead
+            List<Change> matches = diff.search(searchQuery);
+            searchResults = new HashSet<>(matches);
+            changesToDisplay = matches.stream().filter(getDisplayFilter(event)).collect(Collectors.toList());
         }
-        List<Change> changesToDisplay = diff.getChangesToDisplay(event);
-        Collections.sort(changesToDisplay);
+        diffManager.getSubjectLabels().preload(changesToDisplay);
         diffTableModel.setChanges(changesToDisplay);
     }
 
+    private void createSearchPanel() {
+        searchField = new JTextField();
+        searchField.setToolTipText("Find changes by words in their new value, commit comment, author or subject label. " +
+                "End a word with * to match words that start with it");
+        searchField.addActionListener(e -> search(searchField.getText()));
+        JButton clearBtn = new JButton("Clear");
+        clearBtn.addActionListener(e -> {
+            searchField.setText("");
+            search("");
+        });
+
+        JPanel searchPanel = new JPanel(new BorderLayout(5, 5));
+        searchPanel.setBorder(GuiUtils.EMPTY_BORDER);
+        searchPanel.add(new JLabel("Search:"), BorderLayout.WEST);
+        searchPanel.add(searchField, BorderLayout.CENTER);
+        searchPanel.add(clearBtn, BorderLayout.EAST);
+        add(searchPanel, BorderLayout.NORTH);
+    }
+
+    private void search(String query) {
+        searchQuery = query.trim();
+        if(displayedEvent != null || !searchQuery.isEmpty()) {
+            diffManager.clearSelectedChanges();
+            updateDiff(displayedEvent != null ? displayedEvent : LogDiffEvent.ONTOLOGY_UPDATED);
+        }
+    }
+
+    private void createProgressPanel() {
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        JButton cancelBtn = new JButton("Cancel");
+        cancelBtn.addActionListener(e -> diffManager.cancelDiffUpdate());
+
+        progressPanel = new JPanel(new BorderLayout(5, 5));
+        progressPanel.setBorder(GuiUtils.EMPTY_BORDER);
+        progressPanel.add(new JLabel("Computing changes"), BorderLayout.WEST);
+        progressPanel.add(progressBar, BorderLayout.CENTER);
+        progressPanel.add(cancelBtn, BorderLayout.EAST);
+        add(progressPanel, BorderLayout.SOUTH);
+        updateProgress();
+    }
+
+    private void updateProgress() {
+        progressPanel.setVisible(diffManager.isDiffUpdating());
+        progressBar.setValue(Math.max(diffManager.getDiffProgress(), 0));
+    }
+
     private void createDiffTable() {
         // create diff table model
         diffTableModel = new ChangesTableModel(editorKit);
@@ -130,28 +244,24 @@ public class ChangesPanel extends JPanel implements Disposable {
         table.getSelectionModel().addListSelectionListener(rowSelectionListener);
 
         // allow sorting columns (sort initially by the date column)
-        TableRowSorter<TableModel> sorter = new TableRowSorter<>(diffTableModel);
-        sorter.setComparator(ChangesTableModel.Column.CHANGE_SUBJECT.ordinal(), new MyComparator<Object>(diffTableModel));
+        ChangesTableSorter sorter = new ChangesTableSorter(diffTableModel);
+        sorter.setComparator(ChangesTableModel.Column.CHANGE_SUBJECT.ordinal(), new SubjectComparator());
         List<RowSorter.SortKey> sortKeys = new ArrayList<>();
         sortKeys.add(new RowSorter.SortKey(ChangesTableModel.Column.DATE.ordinal(), SortOrder.DESCENDING));
         sorter.setSortKeys(sortKeys);
         table.setRowSorter(sorter);
     }
     
-    private class MyComparator<Object> implements Comparator<Object> {
-    	
-    	private AbstractTableModel model = null;
-
-    	public MyComparator(AbstractTableModel mod) {
-    		model = mod;
-    	}
-		public int compare(Object o1, Object o2) {
-			// TODO Auto-generated method stub
-			return ((String) o1).compareToIgnoreCase((String) o2);
-		}
-    	
-    };
-    
+    /**
+     * Compares change subjects by their (cached) labels, ignoring case
+     */
+    private static final class SubjectComparator implements Comparator<Object> {
+        @Override
+        public int compare(Object o1, Object o2) {
+            return String.CASE_INSENSITIVE_ORDER.compare(o1 != null ? o1.toString() : "", o2 != null ? o2.toString() : "");
+        }
+    }
+
     private void setColumnsWidth(JTable table, double... values) {
         for (int i = 0; i < table.getColumnModel().getColumnCount(); i++) {
             TableColumn column = table.getColumnModel().getColumn(i);
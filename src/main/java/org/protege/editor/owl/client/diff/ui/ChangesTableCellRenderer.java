@@ -15,6 +15,7 @@ import java.util.Date;
  * Stanford Center for Biomedical Informatics Research
  */
 public class ChangesTableCellRenderer extends LogDiffCellRenderer {
+    private final JLabel iconLabel = new JLabel("", null, JLabel.CENTER);
 
     /**
      * Constructor
@@ -23,6 +24,7 @@ public class ChangesTableCellRenderer extends LogDiffCellRenderer {
      */
     public ChangesTableCellRenderer(OWLEditorKit editorKit) {
         super(editorKit);
+        iconLabel.setOpaque(true);
     }
 
     @Override
@@ -93,9 +95,8 @@ public class ChangesTableCellRenderer extends LogDiffCellRenderer {
 //            g.drawImage(badge.getImage(), 17, 0, null);
 //            icon = new ImageIcon(img);
 //        }
-        JLabel lbl = new JLabel("", icon, JLabel.CENTER);
-        lbl.setOpaque(true);
-        setBackground(table, type, mode, lbl, isSelected);
-        return lbl;
+        iconLabel.setIcon(icon);
+        setBackground(table, type, mode, iconLabel, isSelected);
+        return iconLabel;
     }
 }
@@ -4,30 +4,28 @@ import edu.stanford.protege.metaproject.api.UserId;
 
 import org.protege.editor.owl.OWLEditorKit;
 import org.protege.editor.owl.client.diff.model.Change;
+import org.protege.editor.owl.client.diff.model.ChangeId;
 import org.protege.editor.owl.client.diff.model.ChangeMode;
 import org.protege.editor.owl.client.diff.model.ChangeType;
+import org.protege.editor.owl.client.diff.model.DiffDelta;
+import org.protege.editor.owl.client.diff.model.LogDiff;
+import org.protege.editor.owl.client.diff.model.LogDiffManager;
 import org.protege.editor.owl.client.diff.model.Review;
+import org.protege.editor.owl.client.diff.model.SubjectLabelCache;
 import org.semanticweb.owlapi.model.IRI;
-import org.semanticweb.owlapi.model.OWLAnnotation;
-import org.semanticweb.owlapi.model.OWLAnnotationProperty;
-import org.semanticweb.owlapi.model.OWLAnnotationValue;
 import org.semanticweb.owlapi.model.OWLClass;
-import org.semanticweb.owlapi.model.OWLEntity;
-import org.semanticweb.owlapi.model.OWLLiteral;
 import org.semanticweb.owlapi.model.OWLObject;
-import org.semanticweb.owlapi.model.OWLOntology;
-import org.semanticweb.owlapi.model.OWLProperty;
 
 import javax.swing.table.AbstractTableModel;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static org.semanticweb.owlapi.search.Searcher.annotationObjects;
 
 /**
  * @author Rafael Gonçalves <br>
@@ -35,24 +33,101 @@ import static org.semanticweb.owlapi.search.Searcher.annotationObjects;
  */
 public class ChangesTableModel extends AbstractTableModel {
     private static final long serialVersionUID = 2145701527431928323L;
-    private List<Change> changes = new ArrayList<>();
-    private OWLOntology ontology; 
+    private static final ChangeId[] NO_ROWS = new ChangeId[0];
+    private ChangeId[] rows = NO_ROWS;
+    private int rowCount;
+    private final Map<ChangeId, Integer> rowIndex = new HashMap<>();
+    private LogDiff diff;
+    private SubjectLabelCache subjectLabels;
 
     /**
-     * No-args constructor
+     * Constructor. The model only keeps the identifiers of the changes in its rows, and gets the changes
+     * themselves from the diff when they are displayed
+     *
+     * @param editorKit OWL editor kit
      */
     public ChangesTableModel(OWLEditorKit editorKit) { 
-    	ontology = editorKit.getOWLModelManager().getActiveOntology();    	
+        LogDiffManager diffManager = LogDiffManager.get(editorKit.getOWLModelManager(), editorKit);
+        diff = diffManager.getDiffEngine();
+        subjectLabels = diffManager.getSubjectLabels();
     }
 
     public void setChanges(List<Change> changes) {
-        this.changes = checkNotNull(changes);
+        checkNotNull(changes);
+        rows = new ChangeId[changes.size()];
+        rowCount = 0;
+        rowIndex.clear();
+        for (Change change : changes) {
+            addRow(change.getId());
+        }
         fireTableDataChanged();
     }
 
+    /**
+     * Update the rows of the changes removed or modified by the given delta, and add rows for the added changes
+     * that satisfy the given filter, firing row events for the affected rows only. Rows are found through their
+     * change identifiers, and removing a row only moves the rows after it; as rows are appended in commit order,
+     * and changes are removed as the baselines of newer changes, these are usually few
+     *
+     * @param delta Diff delta, which should not be a reset delta
+     * @param filter    Filter of the added changes to show
+     */
+    public void applyDelta(DiffDelta delta, Predicate<Change> filter) {
+        checkNotNull(delta); checkNotNull(filter);
+        int[] removedRows = delta.getRemovedChanges().stream().map(c -> rowIndex.get(c.getId())).filter(Objects::nonNull)
+                .mapToInt(Integer::intValue).sorted().toArray();
+        // remove contiguous blocks from last to first, so that the rows of the blocks still to remove do not move
+        int end = removedRows.length - 1;
+        while (end >= 0) {
+            int start = end;
+            while (start > 0 && removedRows[start - 1] == removedRows[start] - 1) {
+                start--;
+            }
+            removeRows(removedRows[start], removedRows[end]);
+            end = start - 1;
+        }
+        for (Change change : delta.getModifiedChanges()) {
+            Integer row = rowIndex.get(change.getId());
+            if (row != null) {
+                fireTableRowsUpdated(row, row);
+            }
+        }
+        int firstAddedRow = rowCount;
+        for (Change change : delta.getAddedChanges()) {
+            if (!rowIndex.containsKey(change.getId()) && filter.test(change)) {
+                addRow(change.getId());
+            }
+        }
+        if (rowCount > firstAddedRow) {
+            fireTableRowsInserted(firstAddedRow, rowCount - 1);
+        }
+    }
+
+    private void addRow(ChangeId id) {
+        if (rowCount == rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(16, rowCount + (rowCount >> 1)));
+        }
+        rowIndex.put(id, rowCount);
+        rows[rowCount++] = id;
+    }
+
+    private void removeRows(int firstRow, int lastRow) {
+        int count = lastRow - firstRow + 1;
+        for (int i = firstRow; i <= lastRow; i++) {
+            rowIndex.remove(rows[i]);
+        }
+        System.arraycopy(rows, lastRow + 1, rows, firstRow, rowCount - lastRow - 1);
+        rowCount -= count;
+        Arrays.fill(rows, rowCount, rowCount + count, null);
+        for (int i = firstRow; i < rowCount; i++) {
+            rowIndex.put(rows[i], i);
+        }
+        fireTableRowsDeleted(firstRow, lastRow);
+    }
+
     @Override
     public int getRowCount() {
-        return (changes != null ? changes.size() : 0);
+        return rowCount;
     }
 
     @Override
@@ -63,6 +138,9 @@ public class ChangesTableModel extends AbstractTableModel {
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
         Change change = getChange(rowIndex);
+        if (change == null) {
+            return null; // removed from the diff, and about to be removed from the table
+        }
         switch (Column.values()[columnIndex]) {
             case MODE:
                 return change.getMode();
@@ -71,22 +149,11 @@ public class ChangesTableModel extends AbstractTableModel {
             case AUTHOR:
                 return change.getCommitMetadata().getAuthor();
             case CHANGE_SUBJECT:
-            	OWLObject obj = change.getDetails().getSubject();
-            	if (obj instanceof IRI) {
-            		OWLEntity entity = getEntity((IRI)obj);
-            		if (entity != null) {
-            			if (entity instanceof OWLClass)
-            				return getRDFSLabel((OWLClass) entity);
-            			else if (entity instanceof OWLProperty) {
-            				return ((OWLAnnotationProperty)entity).getIRI().getShortForm();
-            			}
-            		}
-            		return ((IRI) obj).getShortForm();	
-            	} else if (obj instanceof OWLClass) {
-            		return getRDFSLabel((OWLClass)obj);
-            	} else if (!(obj instanceof OWLObject)) {
-            		return obj.toString();
-            	}
+                OWLObject subject = change.getDetails().getSubject();
+                if (subject instanceof IRI || subject instanceof OWLClass) {
+                    return subjectLabels.getLabel(subject).orElse(null);
+                }
+                // fall through: other subjects are shown by their change type
             case CHANGE_TYPE:
                 return change.getDetails().getType();
             case REVISION_TAG:
@@ -102,33 +169,17 @@ public class ChangesTableModel extends AbstractTableModel {
         }
     }
     
-    private OWLEntity getEntity(IRI iri) {
-    	Set<OWLEntity> classes = ontology.getEntitiesInSignature(iri);
-		for (OWLEntity et : classes) {
-			if (et instanceof OWLClass) {
-				return et.asOWLClass();
-			}
-			return et;
-		}
-		return null;
-    }
-
-    private String getRDFSLabel(OWLClass cls) {
-    	String rdfsLabel = null;
-		
-		for (OWLAnnotation annotation : annotationObjects(ontology.getAnnotationAssertionAxioms(cls.getIRI()).stream(), ontology.getOWLOntologyManager().getOWLDataFactory()
-				.getRDFSLabel()).collect(Collectors.toSet())) {
-			OWLAnnotationValue av = annotation.getValue();
-			Optional<OWLLiteral> ol = av.asLiteral();
-			if (ol.isPresent()) {
-				rdfsLabel = ol.get().getLiteral();
-			}
-		}
-    	return rdfsLabel;
-    }
-    
+    /**
+     * Get the change in the given row
+     *
+     * @param rowIndex  Row index
+     * @return Change, or null if it is no longer in the diff
+     */
     public Change getChange(int rowIndex) {
-        return changes.get(rowIndex);
+        if (rowIndex >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + rowIndex + " of " + rowCount);
+        }
+        return diff.getChange(rows[rowIndex]);
     }
 
     @Override
@@ -163,7 +214,9 @@ public class ChangesTableModel extends AbstractTableModel {
     }
 
     public void clear() {
-        changes.clear();
+        rows = NO_ROWS;
+        rowCount = 0;
+        rowIndex.clear();
         fireTableDataChanged();
     }
 
@@ -0,0 +1,419 @@
+package org.protege.editor.owl.client.diff.ui;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A row sorter for the changes table that keeps, for each column it has sorted by, the permutation of model rows
+ * in ascending order of that column. Switching back to a column uses its permutation as is, and descending order
+ * is derived from the ascending permutation by reversing the runs of rows with equal values, so neither requires
+ * sorting again. Values are read from the model once per row when a permutation is created, rather than on every
+ * comparison. Ties are broken by change subject, and then by model row, in either order. Inserted rows are
+ * sorted on their own and merged into the permutations, and deleted rows are dropped from them, so neither
+ * requires sorting again; permutations are only rebuilt when all rows change. As with
+ * {@link javax.swing.DefaultRowSorter}, updated rows are not re-sorted until the sort order changes, and only
+ * the permutation of the column sorted by is kept meanwhile.
+ */
+public class ChangesTableSorter extends RowSorter<ChangesTableModel> {
+    private static final int SUBJECT_COLUMN = ChangesTableModel.Column.CHANGE_SUBJECT.ordinal();
+    private final ChangesTableModel model;
+    private final Map<Integer, Comparator<Object>> comparators = new HashMap<>();
+    private final Map<Integer, Permutation> permutations = new HashMap<>();
+    private List<SortKey> sortKeys = Collections.emptyList();
+    private int[] viewToModel, modelToView;
+    private int rowCount;
+
+    /**
+     * Constructor
+     *
+     * @param model Changes table model
+     */
+    public ChangesTableSorter(ChangesTableModel model) {
+        this.model = checkNotNull(model);
+        rowCount = model.getRowCount();
+    }
+
+    /**
+     * Set the comparator used to sort the given column. Values of other columns are compared by their natural
+     * order if they are comparable with each other, and by their string representation otherwise
+     *
+     * @param column    Model column index
+     * @param comparator    Comparator of (non-null) column values
+     */
+    public void setComparator(int column, Comparator<?> comparator) {
+        @SuppressWarnings("unchecked")
+        Comparator<Object> c = (Comparator<Object>) checkNotNull(comparator);
+        comparators.put(column, c);
+        permutations.remove(column);
+    }
+
+    @Override
+    public ChangesTableModel getModel() {
+        return model;
+    }
+
+    @Override
+    public void toggleSortOrder(int column) {
+        SortOrder order = SortOrder.ASCENDING;
+        if (!sortKeys.isEmpty() && sortKeys.get(0).getColumn() == column && sortKeys.get(0).getSortOrder() == SortOrder.ASCENDING) {
+            order = SortOrder.DESCENDING;
+        }
+        setSortKeys(Collections.singletonList(new SortKey(column, order)));
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> newKeys = (keys != null ? Collections.unmodifiableList(new ArrayList<>(keys)) : Collections.emptyList());
+        if (!newKeys.equals(sortKeys)) {
+            sortKeys = newKeys;
+            fireSortOrderChanged();
+            sort(getViewToModel(), false);
+        }
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        checkRowIndex(index);
+        if (viewToModel == null) {
+            return index;
+        }
+        return viewToModel[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        checkRowIndex(index);
+        if (viewToModel == null) {
+            return index;
+        }
+        if (modelToView == null) {
+            modelToView = new int[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                modelToView[viewToModel[i]] = i;
+            }
+        }
+        return modelToView[index];
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public void modelStructureChanged() {
+        allRowsChanged();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        permutations.clear();
+        rowCount = model.getRowCount();
+        sort(null, false); // the table maps the selection through the model change itself
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        checkRange(firstRow, endRow, rowCount + endRow - firstRow + 1);
+        int count = endRow - firstRow + 1;
+        for (Map.Entry<Integer, Permutation> entry : permutations.entrySet()) {
+            insertRows(entry.getKey(), entry.getValue(), firstRow, count);
+        }
+        rowCount += count;
+        sort(null, true);
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        checkRange(firstRow, endRow, rowCount);
+        for (Permutation permutation : permutations.values()) {
+            permutation.removeRows(firstRow, endRow);
+        }
+        rowCount -= endRow - firstRow + 1;
+        sort(null, true);
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        // keep the current order, but sort again when asked to
+        SortKey key = getActiveSortKey();
+        permutations.keySet().retainAll(key != null ? Collections.singleton(key.getColumn()) : Collections.emptySet());
+        permutations.values().forEach(p -> p.stale = true);
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        rowsUpdated(firstRow, endRow);
+    }
+
+    private void checkRange(int firstRow, int endRow, int limit) {
+        if (firstRow < 0 || endRow < firstRow || endRow >= limit) {
+            throw new IndexOutOfBoundsException("Invalid range: " + firstRow + " to " + endRow);
+        }
+    }
+
+    private SortKey getActiveSortKey() {
+        SortKey key = (sortKeys.isEmpty() ? null : sortKeys.get(0));
+        return (key == null || key.getSortOrder() == SortOrder.UNSORTED ? null : key);
+    }
+
+    /**
+     * Update the view from the permutation of the column sorted by, creating the permutation if there is none
+     *
+     * @param previousViewToModel   View to model mapping before the update, or null if the model has changed
+     * @param keepStaleOrder    true to keep the order of a permutation with updated rows, false to sort again
+     */
+    private void sort(int[] previousViewToModel, boolean keepStaleOrder) {
+        SortKey key = getActiveSortKey();
+        if (key == null) {
+            viewToModel = null;
+        } else {
+            Permutation permutation = permutations.get(key.getColumn());
+            if (permutation == null || (permutation.stale && !keepStaleOrder)) {
+                permutation = createPermutation(key.getColumn());
+                permutations.put(key.getColumn(), permutation);
+            }
+            viewToModel = (key.getSortOrder() == SortOrder.DESCENDING ? permutation.getDescending() : permutation.ascending);
+        }
+        modelToView = null;
+        fireRowSorterChanged(previousViewToModel);
+    }
+
+    private Permutation createPermutation(int column) {
+        RowOrder order = new RowOrder(column, 0, rowCount);
+        int[] ascending = sortRows(order, 0, rowCount);
+        BitSet runStarts = new BitSet(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            if (i == 0 || !order.haveEqualValues(ascending[i - 1], ascending[i])) {
+                runStarts.set(i);
+            }
+        }
+        return new Permutation(ascending, runStarts);
+    }
+
+    private static int[] sortRows(RowOrder order, int firstRow, int count) {
+        return IntStream.range(firstRow, firstRow + count).boxed().sorted(order::compare).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Merge the given inserted model rows into the given permutation. Only the inserted rows are sorted, and each
+     * is placed by a binary search among the rows that follow the previous one, so values are read from the
+     * model for the inserted rows and for logarithmically many of the other rows, as with
+     * {@link javax.swing.DefaultRowSorter}
+     *
+     * @param column    Column of the permutation
+     * @param permutation   Permutation
+     * @param firstRow  First inserted model row
+     * @param count Number of inserted rows
+     */
+    private void insertRows(int column, Permutation permutation, int firstRow, int count) {
+        int[] ascending = permutation.ascending;
+        for (int i = 0; i < ascending.length; i++) {
+            if (ascending[i] >= firstRow) {
+                ascending[i] += count;
+            }
+        }
+        RowOrder order = new RowOrder(column, firstRow, count);
+        int[] merged = new int[ascending.length + count];
+        BitSet runStarts = new BitSet(merged.length);
+        int from = 0, to = 0;
+        boolean afterInserted = false;
+        for (int row : sortRows(order, firstRow, count)) {
+            int position = order.findPosition(ascending, from, row);
+            for (; from < position; from++, to++) {
+                merged[to] = ascending[from];
+                if (afterInserted ? !order.haveEqualValues(merged[to - 1], merged[to]) : permutation.runStarts.get(from)) {
+                    runStarts.set(to);
+                }
+                afterInserted = false;
+            }
+            merged[to] = row;
+            if (to == 0 || !order.haveEqualValues(merged[to - 1], row)) {
+                runStarts.set(to);
+            }
+            to++;
+            afterInserted = true;
+        }
+        for (; from < ascending.length; from++, to++) {
+            merged[to] = ascending[from];
+            if (afterInserted ? !order.haveEqualValues(merged[to - 1], merged[to]) : permutation.runStarts.get(from)) {
+                runStarts.set(to);
+            }
+            afterInserted = false;
+        }
+        permutation.update(merged, runStarts);
+    }
+
+    private Comparator<Object> getComparator(int column) {
+        Comparator<Object> comparator = comparators.get(column);
+        return comparator != null ? comparator : ChangesTableSorter::compareValues;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareValues(Object o1, Object o2) {
+        if (o1 instanceof Comparable && o1.getClass().equals(o2.getClass())) {
+            return ((Comparable<Object>) o1).compareTo(o2);
+        }
+        return o1.toString().compareTo(o2.toString());
+    }
+
+    private int[] getViewToModel() {
+        if (viewToModel == null) {
+            return null;
+        }
+        int[] mapping = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            mapping[i] = viewToModel[i];
+        }
+        return mapping;
+    }
+
+    private void checkRowIndex(int index) {
+        if (index < 0 || index >= rowCount) {
+            throw new IndexOutOfBoundsException("Invalid row index: " + index);
+        }
+    }
+
+
+    /**
+     * The order of model rows by a column, comparing values read once per row from the model for the rows in
+     * a given range, and on demand for other rows
+     */
+    private final class RowOrder {
+        private final int column, firstRow;
+        private final Object[] values, subjects;
+        private final Comparator<Object> comparator, subjectComparator;
+
+        RowOrder(int column, int firstRow, int count) {
+            this.column = column;
+            this.firstRow = firstRow;
+            values = new Object[count];
+            subjects = (column != SUBJECT_COLUMN ? new Object[count] : values);
+            for (int i = 0; i < count; i++) {
+                values[i] = model.getValueAt(firstRow + i, column);
+                if (subjects != values) {
+                    subjects[i] = model.getValueAt(firstRow + i, SUBJECT_COLUMN);
+                }
+            }
+            comparator = Comparator.nullsFirst(getComparator(column));
+            subjectComparator = Comparator.nullsFirst(getComparator(SUBJECT_COLUMN));
+        }
+
+        int compare(int r1, int r2) {
+            int result = comparator.compare(getValue(r1, column), getValue(r2, column));
+            if (result == 0 && column != SUBJECT_COLUMN) {
+                result = subjectComparator.compare(getValue(r1, SUBJECT_COLUMN), getValue(r2, SUBJECT_COLUMN));
+            }
+            return result != 0 ? result : Integer.compare(r1, r2);
+        }
+
+        boolean haveEqualValues(int r1, int r2) {
+            return comparator.compare(getValue(r1, column), getValue(r2, column)) == 0;
+        }
+
+        /**
+         * Get the position of the given row among the ordered rows, from the given position on
+         *
+         * @param rows  Ordered rows
+         * @param from  First position
+         * @param row   Row
+         * @return Position of the first row that the given row precedes, or the number of rows if there is none
+         */
+        int findPosition(int[] rows, int from, int row) {
+            int low = from, high = rows.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(rows[mid], row) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private Object getValue(int row, int valueColumn) {
+            if (row >= firstRow && row - firstRow < values.length) {
+                return (valueColumn == column ? values : subjects)[row - firstRow];
+            }
+            return model.getValueAt(row, valueColumn);
+        }
+    }
+
+
+    /**
+     * The rows of the model in ascending order of a column, and where each run of rows with equal values starts.
+     * A permutation is stale once rows have been updated, as they may no longer be in order
+     */
+    private static final class Permutation {
+        private int[] ascending;
+        private BitSet runStarts;
+        private int[] descending;
+        private boolean stale;
+
+        Permutation(int[] ascending, BitSet runStarts) {
+            update(ascending, runStarts);
+        }
+
+        void update(int[] ascending, BitSet runStarts) {
+            this.ascending = ascending;
+            this.runStarts = runStarts;
+            descending = null;
+        }
+
+        /**
+         * Drop the given model rows, and renumber the rows after them
+         *
+         * @param firstRow  First deleted model row
+         * @param endRow    Last deleted model row
+         */
+        void removeRows(int firstRow, int endRow) {
+            int count = endRow - firstRow + 1;
+            int[] remaining = new int[ascending.length - count];
+            BitSet remainingRunStarts = new BitSet(remaining.length);
+            boolean runStartRemoved = false;
+            int to = 0;
+            for (int from = 0; from < ascending.length; from++) {
+                int row = ascending[from];
+                if (row >= firstRow && row <= endRow) {
+                    runStartRemoved |= runStarts.get(from);
+                    continue;
+                }
+                if (runStarts.get(from) || runStartRemoved) {
+                    remainingRunStarts.set(to); // the next row of a run starts it if its first rows are removed
+                }
+                runStartRemoved = false;
+                remaining[to++] = (row > endRow ? row - count : row);
+            }
+            update(remaining, remainingRunStarts);
+        }
+
+        int[] getDescending() {
+            if (descending == null) {
+                descending = new int[ascending.length];
+                int end = ascending.length, i = 0;
+                while (end > 0) { // copy runs from last to first, keeping the order of rows within each run
+                    int start = runStarts.previousSetBit(end - 1);
+                    System.arraycopy(ascending, start, descending, i, end - start);
+                    i += end - start;
+                    end = start;
+                }
+            }
+            return descending;
+        }
+    }
+}
@@ -3,48 +3,91 @@ package org.protege.editor.owl.client.diff.ui;
 import org.protege.editor.owl.client.diff.model.CommitMetadata;
 
 import javax.swing.*;
+import javax.swing.border.Border;
 import javax.swing.border.EmptyBorder;
 
 import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * @author Rafael Gonçalves <br>
  * Stanford Center for Biomedical Informatics Research
  */
 public class CommitListCellRenderer extends DefaultListCellRenderer {
+    private static final Border LABEL_BORDER = new EmptyBorder(7, 7, 7, 3), CONFLICT_LABEL_BORDER = new EmptyBorder(7, 3, 23, 3);
+    private final Function<CommitMetadata, String> conflictSummary;
+    private final Icon commitIcon = GuiUtils.getIcon(GuiUtils.COMMIT_ICON_FILENAME, 17, 17);
+    private final JPanel panel = new JPanel();
+    private final JLabel conflictLabel = new JLabel();
+    private final Map<CommitMetadata, CommitText> texts = new HashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param conflictSummary Function that gives the conflict summary (authors and number of conflicts) of a commit,
+     *                        or null if the commit has no conflicts
+     */
+    public CommitListCellRenderer(Function<CommitMetadata, String> conflictSummary) {
+        this.conflictSummary = checkNotNull(conflictSummary);
+        panel.setLayout(new BoxLayout(panel, BoxLayout.X_AXIS));
+        panel.add(this);
+        panel.add(conflictLabel);
+        panel.setBackground(Color.WHITE);
+        conflictLabel.setBorder(CONFLICT_LABEL_BORDER);
+        conflictLabel.setIcon(GuiUtils.getIcon(GuiUtils.WARNING_ICON_FILENAME, 23, 23));
+        conflictLabel.setIconTextGap(6);
+        conflictLabel.setBackground(Color.WHITE);
+    }
+
+    /**
+     * Drop the display text of commits, which should be called when the listed commits or their conflict summaries
+     * may have changed
+     */
+    public void clearText() {
+        texts.clear();
+    }
 
     @Override
     public Component getListCellRendererComponent(JList list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
         JLabel label = (JLabel) super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
-        label.setBorder(new EmptyBorder(7, 7, 7, 3));
-        label.setIcon(GuiUtils.getIcon(GuiUtils.COMMIT_ICON_FILENAME, 17, 17));
+        label.setBorder(LABEL_BORDER);
+        label.setIcon(commitIcon);
         label.setIconTextGap(9);
 
-        CommitMetadata c = (CommitMetadata) value;
-        label.setToolTipText("Comment: " + c.getComment());
-        
-        String dateStr = GuiUtils.getShortenedFormattedDate(c.getDate()); 
-        label.setText("<html><strong>" + dateStr + " · " + c.getAuthor().toString() + // TODO: To review later
-                "</strong><br><p style=\"padding-top:3;" + (!isSelected ? "color:gray;" : "") + "\"><nobr>" + c.getComment() + 
-                "</nobr></p></html>");
-        
-        JPanel panel = new JPanel();
-        panel.setLayout(new BoxLayout(panel, BoxLayout.X_AXIS));
-        panel.add(label);
-        panel.setBackground(Color.WHITE);
-        
-        if (c.getConflictCount() > 0) {
-	        JLabel conflictLabel = new JLabel();
-	        conflictLabel.setBorder(new EmptyBorder(7, 3, 23, 3));
-	        conflictLabel.setIcon(GuiUtils.getIcon(GuiUtils.WARNING_ICON_FILENAME, 23, 23));
-	        conflictLabel.setIconTextGap(6);
-	        conflictLabel.setBackground(Color.WHITE);
-	        conflictLabel.setText("<html><strong><font color='red'>" + c.getConflictAuthor() + "(" + c.getConflictCount() + ")" +
-	                "</font></strong></html>");
-	        
-	        panel.add(conflictLabel);
+        CommitText text = texts.computeIfAbsent((CommitMetadata) value, CommitText::new);
+        label.setToolTipText(text.toolTip);
+        label.setText(isSelected ? text.selectedText : text.text);
+
+        if (text.conflicts != null) {
+            conflictLabel.setText(text.conflicts);
+            conflictLabel.setVisible(true);
+        } else {
+            conflictLabel.setVisible(false);
         }
         return panel;
     }
 
+
+    /**
+     * The display text of a commit, which is built once and reused on every paint
+     */
+    private final class CommitText {
+        private final String text, selectedText, toolTip, conflicts;
+
+        CommitText(CommitMetadata c) {
+            String dateStr = GuiUtils.getShortenedFormattedDate(c.getDate());
+            String header = "<html><strong>" + dateStr + " · " + c.getAuthor().toString() + // TODO: To review later
+                    "</strong><br><p style=\"padding-top:3;";
+            String comment = "\"><nobr>" + c.getComment() + "</nobr></p></html>";
+            text = header + "color:gray;" + comment;
+            selectedText = header + comment;
+            toolTip = "Comment: " + c.getComment();
+            String summary = conflictSummary.apply(c);
+            conflicts = (summary != null ? "<html><strong><font color='red'>" + summary + "</font></strong></html>" : null);
+        }
+    }
 }
@@ -2,10 +2,8 @@ package org.protege.editor.owl.client.diff.ui;
 
 import org.protege.editor.core.Disposable;
 import org.protege.editor.owl.OWLEditorKit;
-import org.protege.editor.owl.client.diff.model.Change;
-import org.protege.editor.owl.client.diff.model.ChangeId;
 import org.protege.editor.owl.client.diff.model.CommitMetadata;
-import org.protege.editor.owl.client.diff.model.CommitMetadataImpl;
+import org.protege.editor.owl.client.diff.model.DiffDelta;
 import org.protege.editor.owl.client.diff.model.LogDiff;
 import org.protege.editor.owl.client.diff.model.LogDiffEvent;
 import org.protege.editor.owl.client.diff.model.LogDiffListener;
@@ -15,9 +13,8 @@ import org.protege.editor.owl.model.OWLModelManager;
 import javax.swing.*;
 import javax.swing.event.ListSelectionListener;
 import java.awt.*;
-import java.util.ArrayList;
+import java.util.*;
 import java.util.List;
-import java.util.Set;
 
 /**
  * @author Rafael Gonçalves <br>
@@ -28,6 +25,9 @@ public class CommitPanel extends JPanel implements Disposable {
     private LogDiffManager diffManager;
     private LogDiff diff;
     private JList<CommitMetadata> commitList = new JList<>();
+    private CommitListCellRenderer commitRenderer;
+    private LogDiffEvent listEvent = LogDiffEvent.ONTOLOGY_UPDATED;
+    private boolean updatingList;
 
     /**
      * Constructor
@@ -46,68 +46,85 @@ public class CommitPanel extends JPanel implements Disposable {
         scrollPane.setBorder(GuiUtils.EMPTY_BORDER);
         scrollPane.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
         add(scrollPane, BorderLayout.CENTER);
-        listCommits(LogDiffEvent.ONTOLOGY_UPDATED);
+        listCommits();
     }
 
     private ListSelectionListener listSelectionListener = e -> {
         CommitMetadata selection = commitList.getSelectedValue();
-        if (selection != null && !e.getValueIsAdjusting()) {
+        if (selection != null && !e.getValueIsAdjusting() && !updatingList) {
             diffManager.setSelectedCommit(selection);
         }
     };
 
-    private LogDiffListener diffListener = event -> {
-        if (event.equals(LogDiffEvent.AUTHOR_SELECTION_CHANGED)) {
-            diffManager.clearSelectedChanges();
-            listCommits(event);
-        } else if(event.equals(LogDiffEvent.ONTOLOGY_UPDATED) || event.equals(LogDiffEvent.COMMIT_OCCURRED)) {
-            listCommits(event);
+    private LogDiffListener diffListener = new LogDiffListener() {
+        @Override
+        public void statusChanged(LogDiffEvent event) {
+            if (event.equals(LogDiffEvent.AUTHOR_SELECTION_CHANGED)) {
+                diffManager.clearSelectedChanges();
+                listEvent = event;
+                listCommits();
+            } else if(event.equals(LogDiffEvent.RESET)) {
+                listEvent = LogDiffEvent.ONTOLOGY_UPDATED;
+                listCommits();
+            } else if(event.equals(LogDiffEvent.ONTOLOGY_UPDATED) || event.equals(LogDiffEvent.COMMIT_OCCURRED) ||
+                    event.equals(LogDiffEvent.DIFF_UPDATED)) {
+                listCommits(); // keep the author filter and the selected commit
+            }
+        }
+
+        @Override
+        public void statusChanged(LogDiffEvent event, DiffDelta delta) {
+            if (event.equals(LogDiffEvent.DIFF_UPDATED) && !delta.isReset() && delta.getAddedChanges().isEmpty()) {
+                commitRenderer.clearText();
+                commitList.repaint(); // no new commits, though conflict summaries may have changed
+            } else {
+                statusChanged(event);
+            }
         }
     };
 
     private void setupList() {
         commitList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         commitList.addListSelectionListener(listSelectionListener);
-        commitList.setCellRenderer(new CommitListCellRenderer());
+        commitRenderer = new CommitListCellRenderer(this::getConflictSummary);
+        commitList.setCellRenderer(commitRenderer);
         commitList.setFixedCellHeight(45);
         commitList.setFixedCellWidth(this.getWidth());
         commitList.setBorder(GuiUtils.MATTE_BORDER);
     }
 
-    private void listCommits(LogDiffEvent event) {
-        if(diffManager.getVersionedOntologyDocument().isPresent()) {
-            List<CommitMetadata> commits = new ArrayList<CommitMetadata>();
-            
-            for(CommitMetadata metadata : diffManager.getCommits(event)) {
-            	int conflictCount = 0;
-            	List<String> conflictAuthors = new ArrayList<String>();
-            	List<Change> changes = diff.getChangesForCommit(metadata);
-            	for(Change change : changes) {
-            		if(change.isConflicting()) {
-            			conflictCount++;
-            			Set<ChangeId> conflictChanges = change.getConflictingChanges();
-            			for (ChangeId changeId : conflictChanges) {
-            				Change conflictChange = diffManager.getDiffEngine().getChange(changeId);
-            				String conflictAuthor = conflictChange.getCommitMetadata().getAuthor();
-            				if (!conflictAuthors.contains(conflictAuthor)) {
-            					conflictAuthors.add(conflictAuthor);
-            				}
-            			}
-            		}
-            	}
-            	
-            	
-            	
-            	CommitMetadata newMetadata = new CommitMetadataImpl(metadata.getCommitId(), metadata.getAuthor(), metadata.getDate(),
-            			metadata.getComment(), conflictCount, conflictAuthors.toString());
-            	commits.add(newMetadata);
+    /**
+     * List the commits of the selected author, or all commits if no author has been selected, and restore the
+     * selection of the selected commit without notifying the diff manager again
+     */
+    private void listCommits() {
+        commitRenderer.clearText();
+        updatingList = true;
+        try {
+            if(diffManager.getVersionedOntologyDocument().isPresent()) {
+                List<CommitMetadata> commits = diffManager.getCommits(listEvent);
+                commitList.setListData(commits.toArray(new CommitMetadata[commits.size()]));
+                CommitMetadata selectedCommit = diffManager.getSelectedCommit();
+                if(selectedCommit != null) {
+                    commitList.setSelectedValue(selectedCommit, false);
+                }
+            }
+            else {
+                commitList.setListData(new CommitMetadata[0]);
             }
-            
-            commitList.setListData(commits.toArray(new CommitMetadata[commits.size()]));
+        } finally {
+            updatingList = false;
         }
-        else {
-            commitList.setListData(new CommitMetadata[0]);
+    }
+
+    private String getConflictSummary(CommitMetadata metadata) {
+        int conflictCount = diff.getConflictCountForCommit(metadata);
+        if (conflictCount == 0) {
+            return null;
         }
+        List<String> conflictAuthors = new ArrayList<>(diff.getConflictAuthorsForCommit(metadata));
+        Collections.sort(conflictAuthors);
+        return conflictAuthors.toString() + "(" + conflictCount + ")";
     }
 
     @Override
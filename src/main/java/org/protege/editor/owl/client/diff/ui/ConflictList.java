@@ -0,0 +1,254 @@
+package org.protege.editor.owl.client.diff.ui;
+
+import org.protege.editor.owl.OWLEditorKit;
+import org.protege.editor.owl.client.diff.model.Change;
+import org.protege.editor.owl.client.diff.model.ChangeCommitDateCompare;
+import org.protege.editor.owl.client.diff.model.CommitMetadata;
+import org.protege.editor.owl.client.diff.model.ConflictGraph;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import javax.swing.border.Border;
+import javax.swing.border.CompoundBorder;
+import javax.swing.border.EmptyBorder;
+import javax.swing.border.MatteBorder;
+import java.awt.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A list of conflicting commits and their ontology changes, flattened into rows of equal height: for each commit,
+ * a header row, a comment row, and a row per ontology change. Since rows have a fixed height, only the visible
+ * rows are ever rendered, however many commits there are. The rows of the conflicts of a change are built in the
+ * background (see {@link #showConflicts(Change, ConflictGraph, Predicate)}).
+ */
+public class ConflictList extends JList<ConflictList.Row> {
+    private static final long serialVersionUID = -4107232462542744139L;
+    private static final Logger logger = LoggerFactory.getLogger(ConflictList.class.getName());
+    private static final int ROW_HEIGHT = 20;
+    private final RowListModel rowModel = new RowListModel();
+    private SwingWorker<List<Row>, Void> rowsWorker;
+
+    /**
+     * Constructor
+     *
+     * @param editorKit OWL editor kit
+     */
+    public ConflictList(OWLEditorKit editorKit) {
+        setModel(rowModel);
+        setCellRenderer(new RowRenderer(checkNotNull(editorKit)));
+        setSelectionModel(new DisabledListItemSelectionModel());
+        setFixedCellHeight(ROW_HEIGHT);
+        setFocusable(false);
+        setBackground(GuiUtils.WHITE_BACKGROUND);
+    }
+
+    /**
+     * Show the changes that conflict with the given change, and satisfy the given filter. The list is cleared,
+     * and the rows of the changes are built in the background and shown once they are ready, unless other
+     * conflicts are shown or the list is cleared in the meantime
+     *
+     * @param change    Change
+     * @param conflictGraph Conflict graph
+     * @param filter    Filter of the conflicting changes to show
+     * @return Number of conflicting changes shown
+     */
+    public int showConflicts(Change change, ConflictGraph conflictGraph, Predicate<Change> filter) {
+        checkNotNull(change); checkNotNull(conflictGraph); checkNotNull(filter);
+        clearConflicts();
+        List<Change> changes = new ArrayList<>();
+        for (Change c : conflictGraph.getConflictingChanges(change)) {
+            if (filter.test(c)) {
+                changes.add(c);
+            }
+        }
+        if (!changes.isEmpty()) {
+            fillRows(changes);
+        }
+        return changes.size();
+    }
+
+    /**
+     * Show the changes that conflict with the given change. See {@link #showConflicts(Change, ConflictGraph, Predicate)}
+     *
+     * @param change    Change
+     * @param conflictGraph Conflict graph
+     * @return Number of conflicting changes shown
+     */
+    public int showConflicts(Change change, ConflictGraph conflictGraph) {
+        return showConflicts(change, conflictGraph, c -> true);
+    }
+
+    /**
+     * Clear the list, and stop building the rows of the conflicts last shown
+     */
+    public void clearConflicts() {
+        if (rowsWorker != null) {
+            rowsWorker.cancel(true);
+            rowsWorker = null;
+        }
+        rowModel.setRows(Collections.emptyList());
+    }
+
+    /**
+     * Get the text that describes the conflict cluster of the given change
+     *
+     * @param change    Change
+     * @param conflictGraph Conflict graph
+     * @return Conflict cluster text
+     */
+    public static String createClusterText(Change change, ConflictGraph conflictGraph) {
+        int size = conflictGraph.getClusterSize(change);
+        List<String> authors = new ArrayList<>(conflictGraph.getClusterAuthors(change));
+        Collections.sort(authors);
+        return "Conflict group: " + size + " changes by " + String.join(", ", authors);
+    }
+
+    /**
+     * Build the rows of the given conflicting changes in the background
+     *
+     * @param changes   List of conflicting changes
+     */
+    private void fillRows(List<Change> changes) {
+        rowsWorker = new SwingWorker<List<Row>, Void>() {
+            @Override
+            protected List<Row> doInBackground() {
+                return createRows(changes);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    rowModel.setRows(get());
+                } catch (InterruptedException | CancellationException e) {
+                    logger.debug("Conflict list update interrupted");
+                } catch (ExecutionException e) {
+                    logger.warn("Unable to list conflicting changes", e.getCause());
+                }
+            }
+        };
+        rowsWorker.execute();
+    }
+
+    /**
+     * Create the rows that show the given conflicting changes, grouped by commit, from the latest commit to the
+     * earliest
+     *
+     * @param changes   Collection of changes
+     * @return List of rows
+     */
+    private static List<Row> createRows(Collection<Change> changes) {
+        Map<CommitMetadata, List<OWLOntologyChange>> changesByCommit = new TreeMap<>(
+                new ChangeCommitDateCompare(false).thenComparing(c -> c.getCommitId().get()));
+        for (Change change : changes) {
+            changesByCommit.computeIfAbsent(change.getCommitMetadata(), c -> new ArrayList<>()).addAll(change.getChanges());
+        }
+        List<Row> rows = new ArrayList<>();
+        int conflictNr = 1;
+        for (Map.Entry<CommitMetadata, List<OWLOntologyChange>> entry : changesByCommit.entrySet()) {
+            CommitMetadata commit = entry.getKey();
+            rows.add(new Row("Conflicting commit " + conflictNr++ + " by " + commit.getAuthor() + " on " +
+                    GuiUtils.getShortenedFormattedDate(commit.getDate()), null, true));
+            rows.add(new Row(commit.getComment(), null, false));
+            for (OWLOntologyChange change : entry.getValue()) {
+                rows.add(new Row(null, change, false));
+            }
+        }
+        return rows;
+    }
+
+
+    /**
+     * A row of the list: either a commit header, a commit comment, or an ontology change of the commit
+     */
+    public static final class Row {
+        private final String text;
+        private final OWLOntologyChange change;
+        private final boolean header;
+
+        private Row(String text, OWLOntologyChange change, boolean header) {
+            this.text = text;
+            this.change = change;
+            this.header = header;
+        }
+    }
+
+
+    private static final class RowListModel extends AbstractListModel<Row> {
+        private static final long serialVersionUID = 3870567231340434396L;
+        private List<Row> rows = Collections.emptyList();
+
+        void setRows(List<Row> rows) {
+            int oldSize = this.rows.size();
+            this.rows = checkNotNull(rows);
+            if (oldSize > 0) {
+                fireIntervalRemoved(this, 0, oldSize - 1);
+            }
+            if (!rows.isEmpty()) {
+                fireIntervalAdded(this, 0, rows.size() - 1);
+            }
+        }
+
+        @Override
+        public int getSize() {
+            return rows.size();
+        }
+
+        @Override
+        public Row getElementAt(int index) {
+            return rows.get(index);
+        }
+    }
+
+
+    private static final class RowRenderer implements ListCellRenderer<Row> {
+        private static final Border HEADER_BORDER = new EmptyBorder(0, 5, 0, 5),
+                SEPARATED_HEADER_BORDER = new CompoundBorder(new MatteBorder(1, 0, 0, 0, GuiUtils.BORDER_COLOR), HEADER_BORDER),
+                COMMENT_BORDER = new EmptyBorder(0, 26, 0, 5);
+        private final ChangeListCellRenderer changeRenderer;
+        private final JLabel label = new JLabel();
+        private final Icon warningIcon = GuiUtils.getIcon(GuiUtils.WARNING_ICON_FILENAME, 16, 16);
+        private Font font, boldFont;
+
+        RowRenderer(OWLEditorKit editorKit) {
+            changeRenderer = new ChangeListCellRenderer(editorKit);
+            label.setOpaque(true);
+            label.setBackground(GuiUtils.WHITE_BACKGROUND);
+            label.setIconTextGap(5);
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends Row> list, Row row, int index, boolean isSelected, boolean cellHasFocus) {
+            if (row.change != null) {
+                return changeRenderer.getListCellRendererComponent(list, row.change, index, isSelected, cellHasFocus);
+            }
+            if (list.getFont() != font) {
+                font = list.getFont();
+                boldFont = font.deriveFont(Font.BOLD);
+            }
+            label.setText(row.text);
+            if (row.header) {
+                label.setIcon(warningIcon);
+                label.setFont(boldFont);
+                label.setForeground(GuiUtils.UNSELECTED_FOREGROUND);
+                label.setBorder(index == 0 ? HEADER_BORDER : SEPARATED_HEADER_BORDER);
+            } else {
+                label.setIcon(null);
+                label.setFont(font);
+                label.setForeground(Color.GRAY);
+                label.setBorder(COMMENT_BORDER);
+            }
+            return label;
+        }
+    }
+}
@@ -4,14 +4,13 @@ import org.protege.editor.core.Disposable;
 import org.protege.editor.owl.OWLEditorKit;
 import org.protege.editor.owl.client.diff.model.*;
 import org.protege.editor.owl.model.OWLModelManager;
-import org.semanticweb.owlapi.model.OWLOntologyChange;
 
 import javax.swing.*;
-import javax.swing.border.Border;
+import javax.swing.border.CompoundBorder;
 import javax.swing.border.EmptyBorder;
+import javax.swing.border.MatteBorder;
 import java.awt.*;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.Date;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -20,10 +19,13 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * Stanford Center for Biomedical Informatics Research
  */
 public class ConflictsGridPanel extends JPanel implements Disposable {
-    private OWLEditorKit editorKit;
     private LogDiffManager diffManager;
     private LogDiff diff;
     private Change change;
+    private final JLabel headerLabel;
+    private final ConflictList priorList, subsequentList;
+    private final JPanel priorPanel, subsequentPanel;
+    private final JSplitPane splitPane;
 
     /**
      * Constructor
@@ -32,7 +34,7 @@ public class ConflictsGridPanel extends JPanel implements Disposable {
      * @param editorKit    OWL editor kit
      */
     public ConflictsGridPanel(OWLModelManager modelManager, OWLEditorKit editorKit) {
-        this.editorKit = checkNotNull(editorKit);
+        checkNotNull(editorKit);
         diffManager = LogDiffManager.get(modelManager, editorKit);
         diffManager.addListener(diffListener);
         diff = diffManager.getDiffEngine();
@@ -42,6 +44,15 @@ public class ConflictsGridPanel extends JPanel implements Disposable {
         setBackground(GuiUtils.WHITE_BACKGROUND);
         setAlignmentX(LEFT_ALIGNMENT);
 
+        headerLabel = createHeaderLabel("");
+        priorList = new ConflictList(editorKit);
+        subsequentList = new ConflictList(editorKit);
+        priorPanel = createConflictsPanel(priorList, "Prior commits:");
+        subsequentPanel = createConflictsPanel(subsequentList, "Subsequent commits:");
+        splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT);
+        splitPane.setBorder(GuiUtils.EMPTY_BORDER);
+        splitPane.setResizeWeight(0.5);
+
         if (!diffManager.getSelectedChanges().isEmpty()) {
             change = diffManager.getFirstSelectedChange();
             addConflictDetails();
@@ -54,126 +65,86 @@ public class ConflictsGridPanel extends JPanel implements Disposable {
             if (event.equals(LogDiffEvent.CHANGE_SELECTION_CHANGED)) {
                 if (!diffManager.getSelectedChanges().isEmpty()) {
                     change = diffManager.getFirstSelectedChange();
-                    removeAll();
                     addConflictDetails();
                 }
             } else if (event.equals(LogDiffEvent.AUTHOR_SELECTION_CHANGED) || event.equals(LogDiffEvent.COMMIT_SELECTION_CHANGED) || event.equals(LogDiffEvent.ONTOLOGY_UPDATED)) {
-                removeAll(); repaint();
+                clearConflictDetails();
             }
         }
     };
 
-    private GridBagConstraints createGridBagConstraints() {
-        GridBagConstraints c = new GridBagConstraints();
-        c.gridwidth = 1;
-        c.fill = GridBagConstraints.HORIZONTAL;
-        c.gridx = 0;
-        c.gridy = 0;
-        c.anchor = GridBagConstraints.WEST;
-        c.weighty = 0;
-        c.weightx = 1;
-        c.insets = new Insets(0, 5, 2, 5);
-        return c;
-    }
-
-    private void addConflictDetails() {
-        if (change != null) {
-            Set<Change> changes = change.getConflictingChanges().stream().map(id -> diff.getChange(id)).collect(Collectors.toSet());
-            if (!changes.isEmpty()) {
-                Set<Change> before = new HashSet<>(), after = new HashSet<>();
-                for (Change change : changes) {
-                    if (change.getCommitMetadata().getDate().before(this.change.getCommitMetadata().getDate())) {
-                        before.add(change);
-                    } else {
-                        after.add(change);
-                    }
-                }
-                GridBagConstraints bpc = createGridBagConstraints(), apc = createGridBagConstraints();
-                String priorConflictsPanelHeader = "Prior commits:", subsequentConflictsPanelHeader = "Subsequent commits:";
-                if (!before.isEmpty() && !after.isEmpty()) {
-                    JScrollPane beforePnlScrollPane = getConflictsScrollPane(before, bpc, priorConflictsPanelHeader);
-                    JScrollPane afterPnlScrollPane = getConflictsScrollPane(after, apc, subsequentConflictsPanelHeader);
-                    JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, beforePnlScrollPane, afterPnlScrollPane);
-                    splitPane.setBorder(GuiUtils.EMPTY_BORDER);
-                    add(splitPane);
-                    splitPane.setDividerLocation(0.5);
-                    splitPane.setResizeWeight(0.5);
-                } else if (!before.isEmpty()) {
-                    add(getConflictsScrollPane(before, bpc, priorConflictsPanelHeader), BorderLayout.CENTER);
-                } else if (!after.isEmpty()) {
-                    add(getConflictsScrollPane(after, apc, subsequentConflictsPanelHeader), BorderLayout.CENTER);
-                }
-            }
-            else {
-                add(createHeaderLabel("No conflicts", Optional.of(new EmptyBorder(5, 6, 0, 0))), BorderLayout.NORTH);
-            }
-            repaint();
-        }
-    }
-
-    private JScrollPane getConflictsScrollPane(Set<Change> changes, GridBagConstraints constraints, String panelHeader) {
-        JPanel panel = new JPanel(new GridBagLayout());
-        createSubPanel(panel, changes, constraints, panelHeader);
-        JScrollPane scrollPane = new JScrollPane(panel);
+    private JPanel createConflictsPanel(ConflictList list, String panelHeader) {
+        JLabel label = createHeaderLabel(panelHeader);
+        label.setBorder(new CompoundBorder(new MatteBorder(0, 0, 1, 0, GuiUtils.BORDER_COLOR), new EmptyBorder(0, 0, 3, 0)));
+        JScrollPane scrollPane = new JScrollPane(list);
         scrollPane.setBorder(GuiUtils.EMPTY_BORDER);
-        return scrollPane;
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBackground(GuiUtils.WHITE_BACKGROUND);
+        panel.setBorder(new EmptyBorder(5, 6, 1, 1));
+        panel.add(label, BorderLayout.NORTH);
+        panel.add(scrollPane, BorderLayout.CENTER);
+        return panel;
     }
 
-    private JLabel createHeaderLabel(String panelHeader, Optional<Border> border) {
-        JLabel label = new JLabel(panelHeader);
+    private JLabel createHeaderLabel(String text) {
+        JLabel label = new JLabel(text);
         label.setFont(getFont().deriveFont(Font.BOLD));
-        if(border.isPresent()) {
-            label.setBorder(border.get());
-        }
         return label;
     }
 
-    private void createSubPanel(JPanel parent, Set<Change> changes, GridBagConstraints con, String panelHeader) {
-        parent.add(createHeaderLabel(panelHeader, Optional.empty()), con);
-        con.gridy = con.gridy + 1;
-        parent.add(new JSeparator(SwingConstants.HORIZONTAL), con);
-        con.gridy = con.gridy + 1;
-
-        parent.setAlignmentX(LEFT_ALIGNMENT);
-        parent.setBackground(GuiUtils.WHITE_BACKGROUND);
-        parent.setBorder(new EmptyBorder(5, 1, 1, 1));
-        if (!changes.isEmpty()) {
-            createConflictsPanel(parent, changes, con);
-        }
-        // fill the remaining panel if necessary
-        con.weightx = 1;
-        con.weighty = 1;
-        con.fill = GridBagConstraints.BOTH;
-        parent.add(new JLabel(), con);
+    private void clearConflictDetails() {
+        priorList.clearConflicts();
+        subsequentList.clearConflicts();
+        removeAll();
+        revalidate();
+        repaint();
     }
 
-    private void createConflictsPanel(JPanel panel, Set<Change> changes, GridBagConstraints con) {
-        Map<CommitMetadata, Set<OWLOntologyChange>> map = new TreeMap<>(new ChangeCommitDateCompare(false));
-        for (Change change : changes) {
-            CommitMetadata metadata = change.getCommitMetadata();
-            if (map.containsKey(metadata)) {
-                Set<OWLOntologyChange> ontChanges = map.get(metadata);
-                ontChanges.addAll(change.getChanges());
-                map.put(metadata, ontChanges);
+    private void addConflictDetails() {
+        clearConflictDetails();
+        if (change != null) {
+            ConflictGraph conflictGraph = diff.getConflictGraph();
+            Date date = change.getCommitMetadata().getDate();
+            boolean hasPrior = priorList.showConflicts(change, conflictGraph, c -> c.getCommitMetadata().getDate().before(date)) > 0;
+            boolean hasSubsequent = subsequentList.showConflicts(change, conflictGraph, c -> !c.getCommitMetadata().getDate().before(date)) > 0;
+            if (hasPrior || hasSubsequent) {
+                headerLabel.setText(ConflictList.createClusterText(change, conflictGraph));
+                headerLabel.setBorder(new EmptyBorder(5, 6, 5, 0));
+                add(headerLabel, BorderLayout.NORTH);
+                addConflictsPanels(hasPrior, hasSubsequent);
             } else {
-                map.put(metadata, change.getChanges());
+                headerLabel.setText("No conflicts");
+                headerLabel.setBorder(new EmptyBorder(5, 6, 0, 0));
+                add(headerLabel, BorderLayout.NORTH);
             }
+            revalidate();
         }
-        int counter = 1;
-        for (CommitMetadata cd : map.keySet()) {
-            Set<OWLOntologyChange> ontChanges = map.get(cd);
-            ConflictingCommitPanel commitPanel = new ConflictingCommitPanel(editorKit, ontChanges, cd.getDate(), cd.getAuthor(), cd.getComment(), counter);
-            panel.add(commitPanel, con);
-            con.gridy = con.gridy + 1;
+    }
 
-            panel.add(new JSeparator(SwingConstants.HORIZONTAL), con);
-            con.gridy = con.gridy + 1;
-            counter++;
+    /**
+     * Add the panels of the prior and subsequent conflict lists, side by side if both lists have conflicts
+     *
+     * @param hasPrior  true if there are conflicting changes committed before the selected change
+     * @param hasSubsequent true if there are conflicting changes committed after the selected change
+     */
+    private void addConflictsPanels(boolean hasPrior, boolean hasSubsequent) {
+        if (hasPrior && hasSubsequent) {
+            splitPane.setLeftComponent(priorPanel);
+            splitPane.setRightComponent(subsequentPanel);
+            add(splitPane, BorderLayout.CENTER);
+            splitPane.setDividerLocation(0.5);
+        } else if (hasPrior) {
+            add(priorPanel, BorderLayout.CENTER);
+        } else {
+            add(subsequentPanel, BorderLayout.CENTER);
         }
+        repaint();
     }
 
     @Override
     public void dispose() {
+        priorList.clearConflicts();
+        subsequentList.clearConflicts();
         diffManager.removeListener(diffListener);
     }
 }
@@ -14,8 +14,11 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.net.URL;
-import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -58,10 +61,29 @@ public class GuiUtils {
             PERMISSION_WRITE = "permission-write.png",
             PERMISSION_EXECUTE = "permission-execute.png";
 
+    private static final DateTimeFormatter
+            DATE_FORMATTER = DateTimeFormatter.ofPattern("EEE, MMM d yyyy HH:mm"),
+            SHORTENED_DATE_FORMATTER = DateTimeFormatter.ofPattern("MMM d yyyy HH:mm");
+
+    /* scaled icons by filename and size, which are shared since icons are immutable */
+    private static final Map<String, Icon> icons = new ConcurrentHashMap<>();
+
 
     /* methods */
 
     public static Icon getIcon(String filename, int width, int height) {
+        String key = checkNotNull(filename) + "@" + width + "x" + height;
+        Icon icon = icons.get(key);
+        if(icon == null) {
+            icon = loadIcon(filename, width, height);
+            if(icon.getIconWidth() > 0) {
+                icons.putIfAbsent(key, icon); // icons that could not be loaded are not cached, so loading is retried
+            }
+        }
+        return icon;
+    }
+
+    private static Icon loadIcon(String filename, int width, int height) {
         BufferedImage icon = null;
         ClassLoader classLoader = GuiUtils.class.getClassLoader();
         try {
@@ -96,10 +118,10 @@ public class GuiUtils {
     }
 
     public static String getFormattedDate(Date date) {
-        return new SimpleDateFormat("EEE, MMM d yyyy HH:mm").format(date);
+        return DATE_FORMATTER.format(date.toInstant().atZone(ZoneId.systemDefault()));
     }
 
     public static String getShortenedFormattedDate(Date date) {
-        return new SimpleDateFormat("MMM d yyyy HH:mm").format(date);
+        return SHORTENED_DATE_FORMATTER.format(date.toInstant().atZone(ZoneId.systemDefault()));
     }
 }
@@ -1,26 +1,18 @@
 package org.protege.editor.owl.client.diff.ui;
 
-import edu.stanford.protege.metaproject.api.AuthToken;
 import edu.stanford.protege.metaproject.api.ProjectId;
 import org.protege.editor.core.Disposable;
-import org.protege.editor.core.ui.error.ErrorLogPanel;
 import org.protege.editor.owl.OWLEditorKit;
 import org.protege.editor.owl.client.ClientSession;
 import org.protege.editor.owl.client.LocalHttpClient;
 import org.protege.editor.owl.client.SessionRecorder;
-import org.protege.editor.owl.client.api.Client;
 import org.protege.editor.owl.client.api.exception.AuthorizationException;
 import org.protege.editor.owl.client.api.exception.ClientRequestException;
 import org.protege.editor.owl.client.api.exception.LoginTimeoutException;
 import org.protege.editor.owl.client.diff.model.*;
-import org.protege.editor.owl.client.event.CommitOperationEvent;
-import org.protege.editor.owl.client.ui.UserLoginPanel;
 import org.protege.editor.owl.model.OWLModelManager;
 import org.protege.editor.owl.model.event.EventType;
-import org.protege.editor.owl.server.api.CommitBundle;
 import org.protege.editor.owl.client.api.exception.ClientRequestException;
-import org.protege.editor.owl.server.policy.CommitBundleImpl;
-import org.protege.editor.owl.server.versioning.Commit;
 import org.protege.editor.owl.server.versioning.api.ServerDocument;
 import org.protege.editor.owl.server.versioning.api.ChangeHistory;
 import org.protege.editor.owl.server.versioning.api.DocumentRevision;
@@ -38,7 +30,6 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
@@ -59,6 +50,8 @@ public class ReviewButtonsPanel extends JPanel implements Disposable {
     private boolean read_only = false;
     private final ListeningExecutorService service = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
     private ProgressDialog dlg = new ProgressDialog();
+    private ReviewCommitWorker.Plan pendingCommit;
+    private ReviewCommitWorker commitWorker;
 
     /**
      * Constructor
@@ -114,8 +107,11 @@ public class ReviewButtonsPanel extends JPanel implements Disposable {
                     enable(false, clearBtn, rejectBtn, commitBtn);
                 }
             }
+            if(event.equals(LogDiffEvent.RESET) || event.equals(LogDiffEvent.ONTOLOGY_UPDATED)) {
+                discardPendingCommitOfInactiveDocument();
+            }
             if(event.equals(LogDiffEvent.CHANGE_REVIEWED) || event.equals(LogDiffEvent.ONTOLOGY_UPDATED)) {
-                if(reviewManager.hasUncommittedReviews()) {
+                if(reviewManager.hasUncommittedReviews() || pendingCommit != null) {
                     enable(true, commitBtn);
                 }
                 else {
@@ -128,20 +124,14 @@ public class ReviewButtonsPanel extends JPanel implements Disposable {
     private ActionListener rejectBtnListener = new ActionListener() {
         @Override
         public void actionPerformed(ActionEvent e) {
-            for(Change c : diffManager.getSelectedChanges()) {
-                reviewManager.setReviewStatus(c, ReviewStatus.REJECTED);
-            }
-            diffManager.statusChanged(LogDiffEvent.CHANGE_REVIEWED);
+            reviewManager.setReviewStatus(diffManager.getSelectedChanges(), ReviewStatus.REJECTED);
         }
     };
 
     private ActionListener clearBtnListener = new ActionListener() {
         @Override
         public void actionPerformed(ActionEvent e) {
-            for(Change c : diffManager.getSelectedChanges()) {
-                reviewManager.setReviewStatus(c, ReviewStatus.PENDING);
-            }
-            diffManager.statusChanged(LogDiffEvent.CHANGE_REVIEWED);
+            reviewManager.setReviewStatus(diffManager.getSelectedChanges(), ReviewStatus.PENDING);
         }
     };
 
@@ -259,8 +249,39 @@ public class ReviewButtonsPanel extends JPanel implements Disposable {
         return comments;
     }
 
+    /**
+     * Discard the pending commit, if any, unless it is for the active versioned ontology (e.g., after
+     * switching projects), and stop committing it if it is being committed
+     */
+    private void discardPendingCommitOfInactiveDocument() {
+        if(pendingCommit != null && diffManager.getVersionedOntologyDocument().orElse(null) != pendingCommit.getDocument()) {
+            discardPendingCommit();
+        }
+    }
+
+    private void discardPendingCommit() {
+        if(commitWorker != null) {
+            commitWorker.requestStop();
+        }
+        pendingCommit = null;
+        enable(commitWorker == null && reviewManager.hasUncommittedReviews(), commitBtn);
+    }
+
     private ActionListener commitBtnListener = e -> {
         Container owner = SwingUtilities.getAncestorOfClass(Frame.class, editorKit.getOWLWorkspace());
+        discardPendingCommitOfInactiveDocument();
+        if(pendingCommit != null) {
+            Object[] options = { "Resume", "Discard", "Cancel" };
+            int answer = JOptionPane.showOptionDialog(owner, "Committing reviews was interrupted after " + pendingCommit.getCommittedChunks() +
+                    " of " + pendingCommit.getChunkCount() + " commits.\nWould you like to resume, or discard the remaining commits?",
+                    "Resume commit", JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+            if(answer == JOptionPane.YES_OPTION) {
+                commit(pendingCommit);
+            } else if(answer == JOptionPane.NO_OPTION) {
+                discardPendingCommit();
+            }
+            return;
+        }
         int answer = JOptionPane.showOptionDialog(owner, "Committing these reviews may involve undoing or redoing previous changes.\n" +
                 "Are you sure you would like to proceed?", "Confirm reviews", JOptionPane.OK_CANCEL_OPTION,
                 JOptionPane.QUESTION_MESSAGE, null, null, null);
@@ -269,50 +290,43 @@ public class ReviewButtonsPanel extends JPanel implements Disposable {
             reviewManager.clearUncommittedReviews();
             enable(false, commitBtn);
             if(!changes.isEmpty()) {
-                VersionedOWLOntology vont = diffManager.getVersionedOntologyDocument().get();
-                String commitComment = JOptionPane.showInputDialog(owner, "Comment for the review: ", "Commit reviews");
-                if (vont == null) {
+                VersionedOWLOntology vont = diffManager.getVersionedOntologyDocument().orElse(null);
+                ProjectId projectId = ClientSession.getInstance(editorKit).getActiveProject();
+                if (vont == null || projectId == null) {
                     JOptionPane.showMessageDialog(owner, "Commit ignored because the ontology is not associated with a server");
                     return;
                 }
+                String commitComment = JOptionPane.showInputDialog(owner, "Comment for the review: ", "Commit reviews");
                 if (commitComment == null) {
                     return; // user pressed cancel
                 }
-                boolean success = commit(vont, changes, commitComment);
-                if(success) {
-                    JOptionPane.showMessageDialog(owner, "The reviews have been successfully committed", "Reviews committed", JOptionPane.INFORMATION_MESSAGE);
-                }
+                commit(new ReviewCommitWorker.Plan(vont, projectId, changes, commitComment, ReviewCommitWorker.getChunkSize()));
             }
         }
     };
 
-    private boolean commit(VersionedOWLOntology vont, List<OWLOntologyChange> changes, String commitComment) {
-        try {
-            ClientSession clientSession = ClientSession.getInstance(editorKit);
-            Client client = clientSession.getActiveClient();
-            RevisionMetadata metaData = new RevisionMetadata(
-                    client.getUserInfo().getId(),
-                    client.getUserInfo().getName(),
-                    client.getUserInfo().getEmailAddress(), "[Review] " + commitComment);
-
-            diffManager.applyOntologyChanges(changes); // apply changes to active ontology
-            Commit commit = new Commit(metaData, changes);
-            CommitBundle bundle = new CommitBundleImpl(vont.getHeadRevision(), commit);
-            ChangeHistory history = client.commit(clientSession.getActiveProject(), bundle);
-            vont.update(history);
-            clientSession.fireCommitPerformedEvent(new CommitOperationEvent(
-                    history.getHeadRevision(),
-                    history.getMetadataForRevision(history.getHeadRevision()),
-                    history.getChangesForRevision(history.getHeadRevision())));
-            return true;
-        } catch (LoginTimeoutException ex1) {
-            // TODO timeouts would ideally be dealt with in a central client handler, rather than forcing all client code to deal with them
-            Optional<AuthToken> authToken = UserLoginPanel.showDialog(editorKit, this);
-            return authToken.isPresent() && authToken.get().isAuthorized() && commit(vont, changes, commitComment);
-        } catch (AuthorizationException | ClientRequestException ex2) {
-            ErrorLogPanel.showErrorDialog(ex2);
-            return false;
-        }
+    private void commit(ReviewCommitWorker.Plan plan) {
+        Container owner = SwingUtilities.getAncestorOfClass(Frame.class, editorKit.getOWLWorkspace());
+        pendingCommit = plan;
+        enable(false, commitBtn);
+        commitWorker = new ReviewCommitWorker(editorKit, plan, this, success -> {
+            commitWorker = null;
+            if(pendingCommit != plan) {
+                // discarded, e.g., because another project was opened
+                enable(pendingCommit != null || reviewManager.hasUncommittedReviews(), commitBtn);
+                return;
+            }
+            if(success) {
+                pendingCommit = null;
+                reviewManager.reviewsCommitted();
+                JOptionPane.showMessageDialog(owner, "The reviews have been successfully committed", "Reviews committed", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(owner, "Committed " + plan.getCommittedChunks() + " of " + plan.getChunkCount() +
+                        " commits. Press Commit to resume.", "Reviews partially committed", JOptionPane.WARNING_MESSAGE);
+            }
+            enable(pendingCommit != null || reviewManager.hasUncommittedReviews(), commitBtn);
+        });
+        commitWorker.execute();
     }
 
     private JButton getButton(String text, ActionListener listener) {
@@ -337,6 +351,9 @@ public class ReviewButtonsPanel extends JPanel implements Disposable {
 
     @Override
     public void dispose() {
+        if(commitWorker != null) {
+            commitWorker.requestStop();
+        }
         rejectBtn.removeActionListener(rejectBtnListener);
         clearBtn.removeActionListener(clearBtnListener);
         commitBtn.removeActionListener(commitBtnListener);
@@ -0,0 +1,319 @@
+package org.protege.editor.owl.client.diff.ui;
+
+import com.google.common.collect.Lists;
+import edu.stanford.protege.metaproject.api.AuthToken;
+import edu.stanford.protege.metaproject.api.ProjectId;
+import org.protege.editor.core.ui.error.ErrorLogPanel;
+import org.protege.editor.owl.OWLEditorKit;
+import org.protege.editor.owl.client.ClientSession;
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.api.exception.LoginTimeoutException;
+import org.protege.editor.owl.client.diff.model.LogDiffManager;
+import org.protege.editor.owl.client.event.CommitOperationEvent;
+import org.protege.editor.owl.client.ui.UserLoginPanel;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.RevisionMetadata;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Commits the ontology changes that undo rejected changes in bounded chunks, one commit per chunk, on a
+ * background thread. Each chunk is applied to the active ontology and then committed; if the session
+ * times out, the user is asked to log in again and the chunk is retried. The progress is kept in a
+ * {@link Plan}, so that if committing fails or is cancelled, it can be resumed from the first chunk that
+ * was not committed. A plan belongs to the versioned ontology and project it was made for, and committing
+ * stops if another ontology becomes active.
+ */
+public class ReviewCommitWorker extends SwingWorker<Boolean, Integer> {
+    private static final Logger logger = LoggerFactory.getLogger(ReviewCommitWorker.class.getName());
+    public static final String CHUNK_SIZE_PROPERTY = "org.protege.editor.owl.client.diff.review.chunksize";
+    private static final int DEFAULT_CHUNK_SIZE = 2000;
+    private static final int MAX_LOGIN_ATTEMPTS = 3;
+    private final OWLEditorKit editorKit;
+    private final LogDiffManager diffManager;
+    private final Plan plan;
+    private final Component parent;
+    private final Consumer<Boolean> completion;
+    private final ProgressMonitor progressMonitor;
+    private volatile boolean stopRequested;
+
+    /**
+     * Constructor
+     *
+     * @param editorKit OWL editor kit
+     * @param plan  Commit plan, which is updated as chunks are committed
+     * @param parent    Parent component of the progress and login dialogs
+     * @param completion    Called on the event dispatch thread when done, with true if all chunks were committed
+     */
+    public ReviewCommitWorker(OWLEditorKit editorKit, Plan plan, Component parent, Consumer<Boolean> completion) {
+        this.editorKit = checkNotNull(editorKit);
+        this.diffManager = LogDiffManager.get(editorKit.getModelManager(), editorKit);
+        this.plan = checkNotNull(plan);
+        this.parent = parent;
+        this.completion = checkNotNull(completion);
+        progressMonitor = new ProgressMonitor(parent, "Committing reviews", null, 0, plan.getChunkCount());
+        progressMonitor.setMillisToDecideToPopup(0);
+        progressMonitor.setMillisToPopup(500);
+        progressMonitor.setProgress(plan.getCommittedChunks());
+    }
+
+    /**
+     * Get the chunk size, which is the value of the {@value #CHUNK_SIZE_PROPERTY} system property, if set
+     *
+     * @return Maximum number of ontology changes per commit
+     */
+    public static int getChunkSize() {
+        return Math.max(1, Integer.getInteger(CHUNK_SIZE_PROPERTY, DEFAULT_CHUNK_SIZE));
+    }
+
+    /**
+     * Stop committing once the chunk being committed, if any, is done. The plan can then be resumed
+     */
+    public void requestStop() {
+        stopRequested = true;
+    }
+
+    @Override
+    protected Boolean doInBackground() throws Exception {
+        ClientSession clientSession = ClientSession.getInstance(editorKit);
+        VersionedOWLOntology vont = plan.getDocument();
+        return commitChunks(plan, new ChunkCommitter() {
+            @Override
+            public boolean isStopped() {
+                return stopRequested;
+            }
+
+            @Override
+            public boolean apply(List<OWLOntologyChange> chunk) throws Exception {
+                SwingUtilities.invokeAndWait(() -> {
+                    // the changes are only applied to the ontology of the plan while it is the active one
+                    if (diffManager.getVersionedOntologyDocument().orElse(null) == vont) {
+                        diffManager.applyOntologyChanges(chunk);
+                    } else {
+                        stopRequested = true;
+                    }
+                });
+                return !stopRequested;
+            }
+
+            @Override
+            public void commit(List<OWLOntologyChange> chunk, String comment) throws Exception {
+                ChangeHistory history = ReviewCommitWorker.this.commit(clientSession, chunk, comment);
+                SwingUtilities.invokeAndWait(() -> {
+                    vont.update(history);
+                    if (diffManager.getVersionedOntologyDocument().orElse(null) == vont) {
+                        clientSession.fireCommitPerformedEvent(new CommitOperationEvent(
+                                history.getHeadRevision(),
+                                history.getMetadataForRevision(history.getHeadRevision()),
+                                history.getChangesForRevision(history.getHeadRevision())));
+                    }
+                });
+            }
+
+            @Override
+            public void chunkCommitted(int committedChunks) {
+                publish(committedChunks);
+            }
+        });
+    }
+
+    /**
+     * Apply and commit the chunks of the given plan that have not been committed yet, in order. A chunk that
+     * was applied but not committed by an earlier, interrupted, call is not applied again
+     *
+     * @param plan  Commit plan, which is updated as chunks are committed
+     * @param committer Chunk committer
+     * @return true if all chunks have been committed, false if the committer stopped before
+     * @throws Exception if a chunk could not be applied or committed; the plan can then be resumed
+     */
+    static boolean commitChunks(Plan plan, ChunkCommitter committer) throws Exception {
+        while (!plan.isComplete()) {
+            if (committer.isStopped()) {
+                return false;
+            }
+            List<OWLOntologyChange> chunk = plan.getNextChunk();
+            if (!plan.nextChunkApplied) {
+                if (!committer.apply(chunk)) {
+                    return false;
+                }
+                plan.nextChunkApplied = true;
+            }
+            committer.commit(chunk, plan.getNextChunkComment());
+            plan.chunkCommitted();
+            committer.chunkCommitted(plan.getCommittedChunks());
+        }
+        return true;
+    }
+
+    private ChangeHistory commit(ClientSession clientSession, List<OWLOntologyChange> chunk, String comment) throws Exception {
+        VersionedOWLOntology vont = plan.getDocument();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Client client = clientSession.getActiveClient();
+                RevisionMetadata metaData = new RevisionMetadata(
+                        client.getUserInfo().getId(),
+                        client.getUserInfo().getName(),
+                        client.getUserInfo().getEmailAddress(), comment);
+                CommitBundle bundle = new CommitBundleImpl(vont.getHeadRevision(), new Commit(metaData, chunk));
+                return client.commit(plan.getProjectId(), bundle);
+            } catch (LoginTimeoutException e) {
+                logger.info("Session timed out while committing reviews (attempt " + attempt + ")");
+                if (attempt >= MAX_LOGIN_ATTEMPTS || !login()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private boolean login() throws Exception {
+        boolean[] authorized = new boolean[1];
+        SwingUtilities.invokeAndWait(() -> {
+            Optional<AuthToken> authToken = UserLoginPanel.showDialog(editorKit, parent);
+            authorized[0] = authToken.isPresent() && authToken.get().isAuthorized();
+        });
+        return authorized[0];
+    }
+
+    @Override
+    protected void process(List<Integer> chunks) {
+        progressMonitor.setProgress(chunks.get(chunks.size() - 1));
+        progressMonitor.setNote(plan.getCommittedChunks() + " of " + plan.getChunkCount() + " commits");
+        if (progressMonitor.isCanceled()) {
+            stopRequested = true; // stop after the chunk being committed, so that the plan stays resumable
+        }
+    }
+
+    @Override
+    protected void done() {
+        progressMonitor.close();
+        boolean success = false;
+        try {
+            success = get();
+        } catch (CancellationException | InterruptedException e) {
+            logger.debug("Review commit interrupted");
+        } catch (ExecutionException e) {
+            ErrorLogPanel.showErrorDialog(e.getCause());
+        }
+        completion.accept(success);
+    }
+
+
+    /**
+     * Applies and commits the chunks of a plan, see {@link #commitChunks(Plan, ChunkCommitter)}
+     */
+    interface ChunkCommitter {
+
+        /**
+         * Check whether committing should stop before the next chunk
+         *
+         * @return true if committing should stop, false otherwise
+         */
+        boolean isStopped();
+
+        /**
+         * Apply the given chunk of changes to the ontology
+         *
+         * @param chunk List of ontology changes
+         * @return true if the chunk was applied, false if committing should stop instead
+         * @throws Exception if the chunk could not be applied
+         */
+        boolean apply(List<OWLOntologyChange> chunk) throws Exception;
+
+        /**
+         * Commit the given chunk of changes, which has been applied
+         *
+         * @param chunk List of ontology changes
+         * @param comment   Commit comment
+         * @throws Exception if the chunk could not be committed
+         */
+        void commit(List<OWLOntologyChange> chunk, String comment) throws Exception;
+
+        /**
+         * Called after each chunk is committed
+         *
+         * @param committedChunks   Number of chunks committed so far
+         */
+        default void chunkCommitted(int committedChunks) { }
+    }
+
+
+    /**
+     * The chunks of ontology changes to commit to a versioned ontology, and how many of them have been
+     * committed so far
+     */
+    public static final class Plan {
+        private final VersionedOWLOntology vont;
+        private final ProjectId projectId;
+        private final List<List<OWLOntologyChange>> chunks;
+        private final String comment;
+        private volatile int committedChunks;
+        private volatile boolean nextChunkApplied;
+
+        /**
+         * Constructor
+         *
+         * @param vont  Versioned ontology to commit to
+         * @param projectId Project of the versioned ontology
+         * @param changes   List of ontology changes to commit, in order
+         * @param comment   Commit comment
+         * @param chunkSize Maximum number of ontology changes per commit
+         */
+        public Plan(VersionedOWLOntology vont, ProjectId projectId, List<OWLOntologyChange> changes, String comment, int chunkSize) {
+            checkArgument(chunkSize > 0, "Chunk size must be positive");
+            this.vont = checkNotNull(vont);
+            this.projectId = checkNotNull(projectId);
+            this.chunks = Lists.partition(new ArrayList<>(checkNotNull(changes)), chunkSize);
+            this.comment = checkNotNull(comment);
+        }
+
+        public VersionedOWLOntology getDocument() {
+            return vont;
+        }
+
+        public ProjectId getProjectId() {
+            return projectId;
+        }
+
+        public int getChunkCount() {
+            return chunks.size();
+        }
+
+        public int getCommittedChunks() {
+            return committedChunks;
+        }
+
+        public boolean isComplete() {
+            return committedChunks == chunks.size();
+        }
+
+        List<OWLOntologyChange> getNextChunk() {
+            return chunks.get(committedChunks);
+        }
+
+        String getNextChunkComment() {
+            return "[Review] " + comment + (chunks.size() > 1 ? " (" + (committedChunks + 1) + "/" + chunks.size() + ")" : "");
+        }
+
+        void chunkCommitted() {
+            nextChunkApplied = false;
+            committedChunks++;
+        }
+    }
+}
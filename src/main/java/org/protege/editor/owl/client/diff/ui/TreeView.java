@@ -56,9 +56,6 @@ public class TreeView extends AbstractOWLClassHierarchyViewComponent {
     };
     
     private void updateDiff(LogDiffEvent event) {
-    	if(diff.getChanges().isEmpty()) {
-            diff.initDiff();
-        }
     	List<Change> changesToDisplay = diff.getChangesToDisplay(event);
         Collections.sort(changesToDisplay);
         boolean setSelected = false;
@@ -69,7 +66,7 @@ public class TreeView extends AbstractOWLClassHierarchyViewComponent {
         		ChangeDetails changeDetails = changeToDisplay.getDetails();
         		OWLObject changeObj = changeDetails.getSubject();
         		if ( changeObj instanceof IRI ) {
-	        		Set<OWLEntity> owlEntitySet = this.getOWLModelManager().getActiveOntology().getEntitiesInSignature((IRI)changeObj);
+	        		Set<OWLEntity> owlEntitySet = diffManager.getEntityResolver().getEntities((IRI)changeObj);
 	        		
 	    			for ( OWLEntity owlEntity : owlEntitySet ) {
 	    				if (owlEntity.isOWLClass()) {
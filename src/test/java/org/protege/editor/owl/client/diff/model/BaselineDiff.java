@@ -0,0 +1,147 @@
+package org.protege.editor.owl.client.diff.model;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import org.protege.editor.owl.client.diff.DiffFactory;
+import org.protege.editor.owl.server.versioning.api.RevisionMetadata;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * The change computation as it was before revisions were processed incrementally, kept as the reference that
+ * the incremental computation must agree with: after each revision but the first, baselines are matched and
+ * conflicts are found among all changes so far, the latter with a new {@link SimpleConflictDetector}. Only
+ * axiom changes are decoded, which are the only changes in a {@link SyntheticHistory}
+ */
+final class BaselineDiff {
+    private final DiffFactory diffFactory = LogDiffManager.getDiffFactory();
+    private final Map<ChangeId, Change> changeMap = new HashMap<>();
+    private final Multimap<OWLObject, ChangeId> changesBySubject = HashMultimap.create();
+    private final Multimap<CommitId, ChangeId> changesByCommit = HashMultimap.create();
+    private final List<Change> createdChanges = new ArrayList<>();
+
+    /**
+     * Process the next revision
+     *
+     * @param revision  Revision number, starting at 1
+     * @param metaData  Revision metadata
+     * @param ontChanges    Ontology changes of the revision
+     */
+    void addRevision(int revision, RevisionMetadata metaData, List<OWLOntologyChange> ontChanges) {
+        String commitComment = (metaData.getComment() != null ? metaData.getComment() : "");
+        CommitMetadata commitMetadata = diffFactory.createCommitMetadata(diffFactory.createCommitId(Integer.toString(revision)),
+                metaData.getAuthorId(), metaData.getDate(), commitComment);
+        RevisionTag revisionTag = diffFactory.createRevisionTag(Integer.toString(revision));
+        for (OWLOntologyChange ontChange : ontChanges) {
+            OntologyChangeVisitor visitor = new OntologyChangeVisitor();
+            ontChange.getAxiom().accept(visitor);
+            if (visitor.getChangeSubject() != null) {
+                ChangeDetails changeDetails = diffFactory.createChangeDetails(revisionTag, visitor.getChangeSubject(),
+                        visitor.getChangeType(), visitor.getProperty(), visitor.getChangeObject());
+                Set<OWLOntologyChange> changeAxiomSet = new HashSet<>();
+                changeAxiomSet.add(ontChange);
+                add(diffFactory.createChange(changeAxiomSet, changeDetails, commitMetadata, LogDiff.getChangeMode(ontChange)));
+            }
+        }
+        if (revision != 1) {
+            findBaselineMatches(changeMap.values());
+            findConflits(changeMap.values());
+        }
+    }
+
+    /**
+     * Get the current changes
+     *
+     * @return Collection of changes
+     */
+    Collection<Change> getChanges() {
+        return changeMap.values();
+    }
+
+    /**
+     * Get all changes created so far, including those removed as the baselines of other changes
+     *
+     * @return List of changes
+     */
+    List<Change> getCreatedChanges() {
+        return createdChanges;
+    }
+
+    private void findConflits(Collection<Change> searchSpace) {
+        ConflictDetector conflictDetector = new SimpleConflictDetector();
+        for (Change change : searchSpace) {
+            List<Change> subjectChanges = changesBySubject.get(change.getDetails().getSubject()).stream()
+                    .map(changeMap::get).collect(Collectors.toList());
+            Set<ChangeId> conflicting = conflictDetector.getConflictingChanges(change, subjectChanges);
+            conflicting.forEach(change::addConflictingChange);
+        }
+    }
+
+    private void findBaselineMatches(Collection<Change> changes) {
+        Set<Change> toRemove = new HashSet<>();
+        for (Change c : changes) {
+            if (c.getDetails().getType().isBuiltInType() && c.getMode().equals(ChangeMode.ADDITION)) {
+                Set<Change> matches = getMatchingChanges(c);
+                if (matches.size() == 1) {
+                    Change c2 = matches.iterator().next();
+                    if (((c.isOfType(BuiltInChangeType.ANNOTATION) || c.isOfType(BuiltInChangeType.ONTOLOGY_ANNOTATION))
+                            && c2.getDetails().getProperty().isPresent()
+                            && c2.getDetails().getProperty().get().equals(c.getDetails().getProperty().get())) ||
+                            c.isOfType(BuiltInChangeType.LOGICAL)) {
+                        c.setBaselineChange(c2.getChanges().iterator().next());
+                        c.setMode(ChangeMode.ALIGNED);
+                        toRemove.add(c2);
+                    }
+                }
+            }
+        }
+        toRemove.forEach(this::remove);
+    }
+
+    private Set<Change> getMatchingChanges(Change c) {
+        Set<Change> matches = new HashSet<>();
+        ChangeDetails changeDetails = c.getDetails();
+        Collection<ChangeId> subjectChanges = changesBySubject.get(changeDetails.getSubject());
+        Collection<ChangeId> commitChanges = changesByCommit.get(c.getCommitMetadata().getCommitId());
+        for (ChangeId id : subjectChanges) {
+            Change change = changeMap.get(id);
+            if (!commitChanges.contains(id) || !change.getDetails().getType().equals(changeDetails.getType()) || !isMatchable(c, change)) {
+                continue;
+            }
+            if (changeDetails.getProperty().isPresent() && change.getDetails().getProperty().isPresent()) {
+                if (changeDetails.getProperty().get().equals(change.getDetails().getProperty().get()) && !c.equals(change)) {
+                    matches.add(change);
+                }
+            } else if (!c.equals(change)) {
+                matches.add(change);
+            }
+        }
+        return matches;
+    }
+
+    private static boolean isMatchable(Change change1, Change change2) {
+        if ((change1.getMode().equals(ChangeMode.ADDITION) && change2.getMode().equals(ChangeMode.REMOVAL)) ||
+                (change1.getMode().equals(ChangeMode.REMOVAL) && change2.getMode().equals(ChangeMode.ADDITION))) {
+            OWLOntologyChange c1 = change1.getChanges().iterator().next();
+            OWLOntologyChange c2 = change2.getChanges().iterator().next();
+            return c1.getAxiom().getAxiomType().equals(c2.getAxiom().getAxiomType());
+        }
+        return false;
+    }
+
+    private void add(Change change) {
+        createdChanges.add(change);
+        changeMap.put(change.getId(), change);
+        changesBySubject.put(change.getDetails().getSubject(), change.getId());
+        changesByCommit.put(change.getCommitMetadata().getCommitId(), change.getId());
+    }
+
+    private void remove(Change change) {
+        changeMap.remove(change.getId());
+        changesBySubject.remove(change.getDetails().getSubject(), change.getId());
+        changesByCommit.remove(change.getCommitMetadata().getCommitId(), change.getId());
+    }
+}
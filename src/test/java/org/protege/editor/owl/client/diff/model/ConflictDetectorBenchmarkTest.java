@@ -0,0 +1,46 @@
+package org.protege.editor.owl.client.diff.model;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the indexed conflict detector with the simple one on a history where many changes by several
+ * authors are made to a few subjects, which is where the simple detector compares each change with the most
+ * others. Both must find the same conflicts; their running times are logged, for comparison across machines
+ * and versions, but not checked
+ */
+public class ConflictDetectorBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(ConflictDetectorBenchmarkTest.class.getName());
+    private static final int REVISIONS = 1500, CLASSES = 4, AUTHORS = 6, RUNS = 3;
+
+    @Test
+    public void indexedDetectorMatchesSimpleDetector() {
+        SyntheticHistory history = new SyntheticHistory(3, REVISIONS, CLASSES, AUTHORS);
+        Map<String, String> simple = null, indexed = null;
+        long simpleTime = Long.MAX_VALUE, indexedTime = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            simple = computeChanges(history, new SimpleConflictDetector());
+            simpleTime = Math.min(simpleTime, System.nanoTime() - start);
+            start = System.nanoTime();
+            indexed = computeChanges(history, new IndexedConflictDetector());
+            indexedTime = Math.min(indexedTime, System.nanoTime() - start);
+        }
+        assertEquals(simple, indexed);
+        logger.info("Processed " + REVISIONS + " revisions (" + simple.size() + " changes) in " + simpleTime / 1000000 +
+                " ms with the simple conflict detector and " + indexedTime / 1000000 + " ms with the indexed one (best of " +
+                RUNS + " runs)");
+    }
+
+    private static Map<String, String> computeChanges(SyntheticHistory history, ConflictDetector conflictDetector) {
+        LogDiff diff = history.createDiff();
+        diff.setConflictDetector(conflictDetector);
+        history.update(diff);
+        return history.describeChanges(diff);
+    }
+}
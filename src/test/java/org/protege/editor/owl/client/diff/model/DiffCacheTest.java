@@ -0,0 +1,87 @@
+package org.protege.editor.owl.client.diff.model;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Checks that changes appended to the cache after each update are loaded back as they were computed, i.e., as
+ * the changes of the whole history are computed without a cache
+ */
+public class DiffCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void appendedUpdatesMatchFullRebuild() throws IOException {
+        // more revisions than segments kept per file, so that the file is compacted along the way
+        SyntheticHistory history = new SyntheticHistory(7, 150, 6, 3);
+        DiffCache cache = new DiffCache(folder.newFolder());
+        LogDiff diff = history.createDiff(cache);
+        for (int head = 1; head <= history.getRevisionCount(); head++) {
+            history.setHead(head);
+            history.update(diff);
+        }
+        assertEquals(rebuild(history), load(history, cache));
+    }
+
+    @Test
+    public void revisionsAfterCachedOnesAreProcessed() throws IOException {
+        SyntheticHistory history = new SyntheticHistory(11, 100, 6, 3);
+        DiffCache cache = new DiffCache(folder.newFolder());
+        history.setHead(60);
+        history.update(history.createDiff(cache));
+        history.setHead(100);
+        LogDiff diff = history.createDiff(cache);
+        history.update(diff);
+        assertEquals(rebuild(history), history.describeChanges(diff));
+        assertEquals(rebuild(history), load(history, cache));
+    }
+
+    @Test
+    public void incompleteSegmentIsIgnoredAndOverwritten() throws IOException {
+        SyntheticHistory history = new SyntheticHistory(13, 60, 6, 3);
+        File directory = folder.newFolder();
+        DiffCache cache = new DiffCache(directory);
+        LogDiff diff = history.createDiff(cache);
+        for (int head = 1; head <= 40; head++) {
+            history.setHead(head);
+            history.update(diff);
+        }
+        load(history, cache); // waits for pending writes
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".cache"));
+        assertNotNull(files);
+        assertEquals(1, files.length);
+        try (OutputStream out = new FileOutputStream(files[0], true)) {
+            out.write(new byte[] { 0, 0, 1, 0, 31, -117, 8 }); // a segment cut short
+        }
+        assertEquals(rebuild(history), load(history, cache));
+
+        LogDiff loaded = history.createDiff(cache);
+        history.update(loaded);
+        for (int head = 41; head <= 60; head++) {
+            history.setHead(head);
+            history.update(loaded);
+        }
+        assertEquals(rebuild(history), load(history, cache));
+    }
+
+    private static Map<String, String> load(SyntheticHistory history, DiffCache cache) {
+        LogDiff diff = history.createDiff(cache);
+        history.update(diff);
+        return history.describeChanges(diff);
+    }
+
+    private static Map<String, String> rebuild(SyntheticHistory history) {
+        return history.describeBaseline();
+    }
+}
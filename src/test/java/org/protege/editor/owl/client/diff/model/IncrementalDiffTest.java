@@ -0,0 +1,124 @@
+package org.protege.editor.owl.client.diff.model;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that processing a history at once, or incrementally as revisions are committed, gives the same changes,
+ * alignments and conflicts as the computation did before revisions were processed incrementally
+ */
+public class IncrementalDiffTest {
+    private static final int REVISIONS = 120;
+
+    @Test
+    public void fullRunMatchesBaseline() {
+        for (long seed = 1; seed <= 5; seed++) {
+            SyntheticHistory history = new SyntheticHistory(seed, REVISIONS, 6, 3);
+            LogDiff diff = history.createDiff();
+            history.update(diff);
+            assertEquals("Seed " + seed, history.describeBaseline(), history.describeChanges(diff));
+        }
+    }
+
+    @Test
+    public void revisionByRevisionMatchesBaseline() {
+        for (long seed = 1; seed <= 5; seed++) {
+            SyntheticHistory history = new SyntheticHistory(seed, REVISIONS, 6, 3);
+            LogDiff diff = history.createDiff();
+            for (int head = 1; head <= REVISIONS; head++) {
+                history.setHead(head);
+                history.update(diff);
+                if (head % 20 == 0) {
+                    assertEquals("Seed " + seed + ", head " + head, history.describeBaseline(), history.describeChanges(diff));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void batchesMatchBaseline() {
+        for (long seed = 1; seed <= 5; seed++) {
+            SyntheticHistory history = new SyntheticHistory(seed, REVISIONS, 6, 3);
+            Random random = new Random(seed);
+            LogDiff diff = history.createDiff();
+            int head = 0;
+            while (head < REVISIONS) {
+                head = Math.min(REVISIONS, head + 1 + random.nextInt(15));
+                history.setHead(head);
+                history.update(diff);
+            }
+            assertEquals("Seed " + seed, history.describeBaseline(), history.describeChanges(diff));
+        }
+    }
+
+    @Test
+    public void updateReadsHistorySnapshot() {
+        SyntheticHistory history = new SyntheticHistory(3, REVISIONS, 6, 3);
+        LogDiff diff = history.createDiff();
+        history.setHead(40);
+        history.update(diff);
+        history.setHead(70);
+        HistorySnapshot snapshot = diff.snapshotHistory();
+        // revisions committed while the update computes are left to the next update
+        history.setHead(REVISIONS);
+        history.update(diff, snapshot);
+        history.setHead(70);
+        assertEquals(history.describeBaseline(), history.describeChanges(diff));
+        history.setHead(REVISIONS);
+        history.update(diff);
+        assertEquals(history.describeBaseline(), history.describeChanges(diff));
+    }
+
+    @Test
+    public void searchMatchesFullRebuild() {
+        String[] queries = {"author1", "revision", "value 7*", "C2"};
+        SyntheticHistory history = new SyntheticHistory(2, REVISIONS, 6, 3);
+        LogDiff expected = history.createDiff();
+        history.update(expected);
+        LogDiff diff = history.createDiff();
+        for (int head = 1; head <= REVISIONS; head++) {
+            history.setHead(head);
+            history.update(diff);
+        }
+        for (String query : queries) {
+            assertEquals(query, describeMatches(expected, query), describeMatches(diff, query));
+        }
+        assertFalse(describeMatches(diff, "value").isEmpty());
+    }
+
+    @Test
+    public void searchFindsChangedLabels() {
+        SyntheticHistory history = new SyntheticHistory(2, REVISIONS, 6, 3);
+        LogDiff diff = history.createDiff();
+        history.update(diff);
+        assertTrue(describeMatches(diff, "renamed").isEmpty());
+        history.setLabel(diff, 2, "Renamed class");
+        LogDiff expected = history.createDiff();
+        history.update(expected);
+        assertEquals(describeMatches(expected, "renamed"), describeMatches(diff, "renamed"));
+        assertFalse(describeMatches(diff, "renamed").isEmpty());
+    }
+
+    private static Set<String> describeMatches(LogDiff diff, String query) {
+        Set<String> matches = new TreeSet<>();
+        for (Change change : diff.search(query)) {
+            matches.add(change.getCommitMetadata().getCommitId().get() + "/" + ReviewJournal.getChangeKey(change));
+        }
+        return matches;
+    }
+
+    @Test
+    public void historyHasAlignmentsAndConflicts() {
+        Map<String, String> changes = new SyntheticHistory(1, REVISIONS, 6, 3).describeBaseline();
+        assertFalse(changes.values().stream().allMatch(d -> d.contains("baseline=Optional.empty")));
+        assertFalse(changes.values().stream().allMatch(d -> d.endsWith("conflicts=[]")));
+    }
+}
@@ -0,0 +1,51 @@
+package org.protege.editor.owl.client.diff.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that review statuses set in bulk are kept by change ordinal, and that changes only get a review
+ * object once it is asked for
+ */
+public class ReviewManagerImplTest {
+
+    @Test
+    public void bulkReviewsAreKeptByOrdinal() {
+        SyntheticHistory history = new SyntheticHistory(1, 60, 6, 3);
+        LogDiff diff = history.createDiff();
+        history.update(diff);
+        LogDiffManager diffManager = mock(LogDiffManager.class);
+        when(diffManager.getActiveProjectId()).thenReturn(Optional.empty());
+        ReviewManagerImpl reviewManager = new ReviewManagerImpl(diff, diffManager);
+
+        List<Change> changes = new ArrayList<>(diff.getChanges());
+        List<Change> rejected = changes.subList(0, changes.size() / 2);
+        reviewManager.setReviewStatus(rejected, ReviewStatus.REJECTED);
+        assertTrue(reviewManager.hasUncommittedReviews());
+        for (Change c : changes) {
+            assertEquals(c, diff.getChange(c.getOrdinal()));
+            assertEquals(rejected.contains(c), reviewManager.reviewChanged(c));
+            if (rejected.contains(c)) {
+                assertEquals(ReviewStatus.REJECTED, c.getReviewStatus());
+                assertEquals(ReviewStatus.REJECTED, c.getReview().getStatus());
+                assertFalse(c.getReview().isCommitted());
+            } else {
+                assertNull(c.getReview());
+            }
+        }
+
+        reviewManager.setReviewStatus(rejected, ReviewStatus.PENDING);
+        assertFalse(reviewManager.hasUncommittedReviews());
+        assertFalse(changes.stream().anyMatch(reviewManager::reviewChanged));
+    }
+}
@@ -0,0 +1,276 @@
+package org.protege.editor.owl.client.diff.model;
+
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.RevisionMetadata;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.*;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A randomly generated change history of a small ontology, in which a few authors repeatedly add, remove and
+ * edit the annotations and superclasses of a few classes, so that changes are aligned with their previous
+ * values and conflict with each other. The head revision can be moved forward to simulate commits, and
+ * {@link #createDiff()} gives a diff over the history as it is at any point. The changes of a diff are compared
+ * by their descriptions (see {@link #describeChanges(LogDiff)}), which the history can also give for the
+ * changes computed as they were before revisions were processed incrementally.
+ */
+final class SyntheticHistory {
+    static final String PROJECT_ID = "synthetic";
+    private static final String BASE = "http://example.org/synthetic#";
+    private final OWLOntology ontology;
+    private final OWLModelManager modelManager = mock(OWLModelManager.class);
+    private final ChangeHistory history = mock(ChangeHistory.class);
+    private final VersionedOWLOntology document = mock(VersionedOWLOntology.class);
+    private final List<RevisionMetadata> metadata = new ArrayList<>();
+    private final List<List<OWLOntologyChange>> revisions = new ArrayList<>();
+    private final Map<ChangeId, Change> stagedChanges = new HashMap<>();
+    private final EntityResolver entityResolver = new EntityResolver(modelManager);
+    private final SubjectLabelCache subjectLabels = new SubjectLabelCache(modelManager, entityResolver);
+    private int head;
+
+    /**
+     * Generate a history
+     *
+     * @param seed  Random seed
+     * @param revisionCount Number of revisions
+     * @param classCount    Number of classes changed
+     * @param authorCount   Number of authors
+     */
+    SyntheticHistory(long seed, int revisionCount, int classCount, int authorCount) {
+        try {
+            ontology = OWLManager.createOWLOntologyManager().createOntology(IRI.create(BASE));
+        } catch (OWLOntologyCreationException e) {
+            throw new IllegalStateException(e);
+        }
+        generate(new Random(seed), revisionCount, classCount, authorCount);
+        head = revisionCount;
+
+        when(modelManager.getActiveOntology()).thenReturn(ontology);
+        when(modelManager.getOWLDataFactory()).thenReturn(ontology.getOWLOntologyManager().getOWLDataFactory());
+        when(history.getBaseRevision()).thenReturn(DocumentRevision.START_REVISION);
+        when(history.getHeadRevision()).thenAnswer(i -> DocumentRevision.create(head));
+        when(history.getMetadataForRevision(any(DocumentRevision.class))).thenAnswer(
+                i -> metadata.get(LogDiff.getRevisionNumber((DocumentRevision) i.getArguments()[0]) - 1));
+        when(history.getChangesForRevision(any(DocumentRevision.class))).thenAnswer(
+                i -> revisions.get(LogDiff.getRevisionNumber((DocumentRevision) i.getArguments()[0]) - 1));
+        when(document.getChangeHistory()).thenReturn(history);
+    }
+
+    private void generate(Random random, int revisionCount, int classCount, int authorCount) {
+        OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+        List<OWLClass> classes = new ArrayList<>();
+        for (int i = 0; i < classCount; i++) {
+            classes.add(df.getOWLClass(IRI.create(BASE + "C" + i)));
+        }
+        List<OWLAnnotationProperty> properties = Arrays.asList(df.getRDFSLabel(), df.getRDFSComment(),
+                df.getOWLAnnotationProperty(IRI.create(BASE + "synonym")));
+        List<OWLAxiom> asserted = new ArrayList<>();
+        for (int r = 0; r < revisionCount; r++) {
+            String author = "author" + random.nextInt(authorCount);
+            List<OWLOntologyChange> changes = new ArrayList<>();
+            for (int i = 0, n = 1 + random.nextInt(4); i < n; i++) {
+                OWLClass cls = classes.get(random.nextInt(classCount));
+                int kind = random.nextInt(4);
+                if (kind == 0 && !asserted.isEmpty()) {
+                    changes.add(new RemoveAxiom(ontology, asserted.remove(random.nextInt(asserted.size()))));
+                } else if (kind == 1) {
+                    OWLAxiom axiom = df.getOWLSubClassOfAxiom(cls, classes.get(random.nextInt(classCount)));
+                    asserted.add(axiom);
+                    changes.add(new AddAxiom(ontology, axiom));
+                } else {
+                    OWLAnnotationProperty property = properties.get(random.nextInt(properties.size()));
+                    if (kind == 2) {
+                        // edit a value, i.e., replace it with another one in the same commit
+                        for (OWLAxiom axiom : asserted) {
+                            if (axiom instanceof OWLAnnotationAssertionAxiom
+                                    && ((OWLAnnotationAssertionAxiom) axiom).getSubject().equals(cls.getIRI())
+                                    && ((OWLAnnotationAssertionAxiom) axiom).getProperty().equals(property)) {
+                                asserted.remove(axiom);
+                                changes.add(new RemoveAxiom(ontology, axiom));
+                                break;
+                            }
+                        }
+                    }
+                    OWLAxiom axiom = df.getOWLAnnotationAssertionAxiom(property, cls.getIRI(),
+                            df.getOWLLiteral("value " + r + "-" + i));
+                    asserted.add(axiom);
+                    changes.add(new AddAxiom(ontology, axiom));
+                }
+            }
+            metadata.add(new RevisionMetadata(author, author, author + "@example.org", "Revision " + (r + 1)));
+            revisions.add(changes);
+        }
+    }
+
+    int getRevisionCount() {
+        return revisions.size();
+    }
+
+    /**
+     * Set the head revision, i.e., the number of revisions committed so far
+     *
+     * @param head  Head revision number
+     */
+    void setHead(int head) {
+        this.head = head;
+    }
+
+    /**
+     * Create a diff of the history, whose manager gives access to the versioned ontology document of the
+     * history. The diff has no cache, and decodes revisions on the calling thread
+     *
+     * @return Log diff
+     */
+    LogDiff createDiff() {
+        return createDiff(null);
+    }
+
+    /**
+     * Create a diff of the history that uses the given cache, with the history as project {@value #PROJECT_ID}.
+     * The diffs of a history share their subject labels
+     *
+     * @param cache Diff cache, or null for none
+     * @return Log diff
+     */
+    LogDiff createDiff(DiffCache cache) {
+        LogDiffManager diffManager = mock(LogDiffManager.class);
+        when(diffManager.getVersionedOntologyDocument()).thenReturn(Optional.of(document));
+        when(diffManager.getActiveOntology()).thenReturn(ontology);
+        when(diffManager.getActiveProjectId()).thenReturn(cache != null ? Optional.of(PROJECT_ID) : Optional.empty());
+        when(diffManager.getEntityResolver()).thenReturn(entityResolver);
+        when(diffManager.getSubjectLabels()).thenReturn(subjectLabels);
+        LogDiff diff = new LogDiff(diffManager, modelManager);
+        diff.setDecodeParallelism(1);
+        diff.setCache(cache);
+        return diff;
+    }
+
+    /**
+     * Give the class with the given index an rdfs:label in the ontology, and let the given diff know of the
+     * labels this changes, as the diff manager does when the ontology changes
+     *
+     * @param diff  Log diff of this history
+     * @param classIndex    Class index
+     * @param label Label
+     */
+    void setLabel(LogDiff diff, int classIndex, String label) {
+        OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+        List<OWLOntologyChange> changes = Collections.singletonList(new AddAxiom(ontology,
+                df.getOWLAnnotationAssertionAxiom(df.getRDFSLabel(), getOWLClass(classIndex).getIRI(), df.getOWLLiteral(label))));
+        ontology.getOWLOntologyManager().applyChanges(changes);
+        entityResolver.invalidate(changes);
+        diff.updateSubjectLabels(subjectLabels.invalidate(changes));
+    }
+
+    /**
+     * Get the class with the given index
+     *
+     * @param classIndex    Class index
+     * @return OWL class
+     */
+    OWLClass getOWLClass(int classIndex) {
+        return ontology.getOWLOntologyManager().getOWLDataFactory().getOWLClass(IRI.create(BASE + "C" + classIndex));
+    }
+
+    /**
+     * Bring the given diff up to date with the history, like {@link LogDiff#initDiff()}, and keep the changes
+     * staged along the way, so that conflicts with changes that were later removed can still be described
+     *
+     * @param diff  Log diff of this history
+     */
+    void update(LogDiff diff) {
+        update(diff, diff.snapshotHistory());
+    }
+
+    /**
+     * Bring the given diff up to date with the given snapshot of the history, as {@link #update(LogDiff)} does
+     *
+     * @param diff  Log diff of this history
+     * @param snapshot  Snapshot of the history, taken from the diff
+     */
+    void update(LogDiff diff, HistorySnapshot snapshot) {
+        try {
+            diff.computeUpdate(snapshot, DiffProgressMonitor.NONE).ifPresent(update -> {
+                update.getStagedChanges().forEach(c -> stagedChanges.put(c.getId(), c));
+                if (diff.applyUpdate(update)) {
+                    diff.saveCache(update);
+                }
+            });
+        } catch (InterruptedException e) {
+            throw new AssertionError("Diff computation interrupted", e);
+        }
+    }
+
+    /**
+     * Get a description of the changes up to the head revision as they were computed before revisions were
+     * processed incrementally (see {@link BaselineDiff})
+     *
+     * @return Map of change descriptions by change key
+     */
+    Map<String, String> describeBaseline() {
+        BaselineDiff baseline = new BaselineDiff();
+        for (int r = 1; r <= head; r++) {
+            baseline.addRevision(r, metadata.get(r - 1), revisions.get(r - 1));
+        }
+        baseline.getCreatedChanges().forEach(c -> stagedChanges.put(c.getId(), c));
+        return describeChanges(baseline.getChanges());
+    }
+
+    /**
+     * Get a description of the changes of the given diff, which must have been brought up to date with
+     * {@link #update(LogDiff)}. See {@link #describeChanges(Collection)}
+     *
+     * @param diff  Log diff
+     * @return Map of change descriptions by change key
+     */
+    Map<String, String> describeChanges(LogDiff diff) {
+        return describeChanges(diff.getChanges());
+    }
+
+    /**
+     * Get a description of the given changes and the relations between them (alignments and conflicts), which
+     * does not depend on the generated change identifiers: each change is described by its commit and content,
+     * and so are the changes it conflicts with, including those that have since been removed
+     *
+     * @param changes   Collection of changes
+     * @return Map of change descriptions by change key
+     */
+    Map<String, String> describeChanges(Collection<Change> changes) {
+        Map<String, List<String>> descriptions = new HashMap<>();
+        for (Change change : changes) {
+            List<String> conflicts = new ArrayList<>();
+            for (ChangeId id : change.getConflictingChanges()) {
+                Change conflictingChange = stagedChanges.get(id);
+                if (conflictingChange == null) {
+                    throw new AssertionError("Conflict with a change that was never staged: " + id);
+                }
+                conflicts.add(getKey(conflictingChange));
+            }
+            Collections.sort(conflicts);
+            ChangeDetails details = change.getDetails();
+            String description = change.getMode() + " " + details.getSubject() + " " + details.getType() + " " +
+                    details.getProperty() + " " + details.getNewValue() + " baseline=" + change.getBaselineChange() +
+                    " conflicts=" + conflicts;
+            // a commit can make the same change more than once, e.g., remove an axiom, add it back and remove it again
+            descriptions.computeIfAbsent(getKey(change), k -> new ArrayList<>()).add(description);
+        }
+        Map<String, String> joined = new TreeMap<>();
+        descriptions.forEach((key, list) -> {
+            Collections.sort(list);
+            joined.put(key, String.join(" | ", list));
+        });
+        return joined;
+    }
+
+    private static String getKey(Change change) {
+        return change.getCommitMetadata().getCommitId().get() + "/" + ReviewJournal.getChangeKey(change);
+    }
+}
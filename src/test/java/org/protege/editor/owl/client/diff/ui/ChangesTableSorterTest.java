@@ -0,0 +1,81 @@
+package org.protege.editor.owl.client.diff.ui;
+
+import org.junit.Test;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that the permutations updated as rows are inserted and deleted give the same order as sorting the rows
+ * from scratch, in both sort orders
+ */
+public class ChangesTableSorterTest {
+    private static final int DATE_COLUMN = ChangesTableModel.Column.DATE.ordinal();
+    private static final int SUBJECT_COLUMN = ChangesTableModel.Column.CHANGE_SUBJECT.ordinal();
+    private final List<Integer> dates = new ArrayList<>();
+    private final List<String> subjects = new ArrayList<>();
+    private final ChangesTableModel model = mock(ChangesTableModel.class);
+
+    public ChangesTableSorterTest() {
+        when(model.getRowCount()).thenAnswer(i -> dates.size());
+        when(model.getValueAt(anyInt(), anyInt())).thenAnswer(i -> {
+            int row = (Integer) i.getArguments()[0], column = (Integer) i.getArguments()[1];
+            return column == DATE_COLUMN ? dates.get(row) : column == SUBJECT_COLUMN ? subjects.get(row) : null;
+        });
+    }
+
+    @Test
+    public void insertedAndDeletedRowsMatchSortingAgain() {
+        Random random = new Random(5);
+        ChangesTableSorter sorter = createSorter(SortOrder.DESCENDING);
+        sorter.setSortKeys(Collections.singletonList(new RowSorter.SortKey(SUBJECT_COLUMN, SortOrder.ASCENDING)));
+        for (int step = 0; step < 200; step++) {
+            if (dates.isEmpty() || random.nextInt(3) > 0) {
+                int firstRow = random.nextInt(dates.size() + 1), count = 1 + random.nextInt(4);
+                for (int i = 0; i < count; i++) {
+                    dates.add(firstRow + i, random.nextInt(10));
+                    subjects.add(firstRow + i, "C" + random.nextInt(5));
+                }
+                sorter.rowsInserted(firstRow, firstRow + count - 1);
+            } else {
+                int firstRow = random.nextInt(dates.size()), endRow = Math.min(dates.size() - 1, firstRow + random.nextInt(3));
+                dates.subList(firstRow, endRow + 1).clear();
+                subjects.subList(firstRow, endRow + 1).clear();
+                sorter.rowsDeleted(firstRow, endRow);
+            }
+            // switching between columns and orders uses the permutations kept for them
+            SortOrder order = (step % 2 == 0 ? SortOrder.ASCENDING : SortOrder.DESCENDING);
+            int column = (step % 3 == 0 ? SUBJECT_COLUMN : DATE_COLUMN);
+            sorter.setSortKeys(Collections.singletonList(new RowSorter.SortKey(column, order)));
+            assertArrayEquals("Step " + step, getViewToModel(createSorter(order, column)), getViewToModel(sorter));
+        }
+    }
+
+    private ChangesTableSorter createSorter(SortOrder order) {
+        return createSorter(order, DATE_COLUMN);
+    }
+
+    private ChangesTableSorter createSorter(SortOrder order, int column) {
+        ChangesTableSorter sorter = new ChangesTableSorter(model);
+        sorter.setSortKeys(Arrays.asList(new RowSorter.SortKey(column, order)));
+        return sorter;
+    }
+
+    private static int[] getViewToModel(ChangesTableSorter sorter) {
+        int[] viewToModel = new int[sorter.getViewRowCount()];
+        for (int i = 0; i < viewToModel.length; i++) {
+            viewToModel[i] = sorter.convertRowIndexToModel(i);
+        }
+        return viewToModel;
+    }
+}
@@ -0,0 +1,125 @@
+package org.protege.editor.owl.client.diff.ui;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+import org.junit.Test;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Checks that committing reviews in chunks can be resumed after a failed commit or a stop, without applying
+ * or committing any chunk twice, against a local stand-in for the server
+ */
+public class ReviewCommitWorkerTest {
+    private final List<OWLOntologyChange> changes = new ArrayList<>();
+
+    public ReviewCommitWorkerTest() {
+        for (int i = 0; i < 5; i++) {
+            changes.add(mock(OWLOntologyChange.class));
+        }
+    }
+
+    @Test
+    public void resumesAfterFailedCommit() throws Exception {
+        ReviewCommitWorker.Plan plan = createPlan();
+        StandInServer server = new StandInServer();
+        server.failingCommit = 1;
+        try {
+            ReviewCommitWorker.commitChunks(plan, server);
+            fail("Commit should have failed");
+        } catch (IOException e) {
+            assertEquals(1, plan.getCommittedChunks());
+        }
+        assertEquals(Arrays.asList(chunk(0), chunk(1)), server.applied);
+        assertEquals(Arrays.asList(chunk(0)), server.committed);
+
+        assertTrue(ReviewCommitWorker.commitChunks(plan, server));
+        assertTrue(plan.isComplete());
+        assertEquals(Arrays.asList(chunk(0), chunk(1), chunk(2)), server.applied);
+        assertEquals(Arrays.asList(chunk(0), chunk(1), chunk(2)), server.committed);
+        assertEquals(Arrays.asList("[Review] reviews (1/3)", "[Review] reviews (2/3)", "[Review] reviews (3/3)"), server.comments);
+    }
+
+    @Test
+    public void resumesAfterStop() throws Exception {
+        ReviewCommitWorker.Plan plan = createPlan();
+        StandInServer server = new StandInServer();
+        server.stopAfter = 2;
+        assertFalse(ReviewCommitWorker.commitChunks(plan, server));
+        assertEquals(2, plan.getCommittedChunks());
+        assertEquals(Arrays.asList(chunk(0), chunk(1)), server.committed);
+
+        server.stopAfter = Integer.MAX_VALUE;
+        assertTrue(ReviewCommitWorker.commitChunks(plan, server));
+        assertEquals(Arrays.asList(chunk(0), chunk(1), chunk(2)), server.applied);
+        assertEquals(Arrays.asList(chunk(0), chunk(1), chunk(2)), server.committed);
+    }
+
+    @Test
+    public void stopsWhenChunkCannotBeApplied() throws Exception {
+        ReviewCommitWorker.Plan plan = createPlan();
+        StandInServer server = new StandInServer();
+        server.applicable = false;
+        assertFalse(ReviewCommitWorker.commitChunks(plan, server));
+        assertEquals(0, plan.getCommittedChunks());
+        assertTrue(server.committed.isEmpty());
+
+        server.applicable = true;
+        assertTrue(ReviewCommitWorker.commitChunks(plan, server));
+        assertEquals(Arrays.asList(chunk(0), chunk(1), chunk(2)), server.applied);
+    }
+
+    private ReviewCommitWorker.Plan createPlan() {
+        return new ReviewCommitWorker.Plan(mock(VersionedOWLOntology.class), mock(ProjectId.class), changes, "reviews", 2);
+    }
+
+    private List<OWLOntologyChange> chunk(int i) {
+        return changes.subList(2 * i, Math.min(changes.size(), 2 * i + 2));
+    }
+
+
+    /**
+     * Records the chunks applied and committed, and fails or stops as configured
+     */
+    private static final class StandInServer implements ReviewCommitWorker.ChunkCommitter {
+        private final List<List<OWLOntologyChange>> applied = new ArrayList<>(), committed = new ArrayList<>();
+        private final List<String> comments = new ArrayList<>();
+        private int failingCommit = -1, stopAfter = Integer.MAX_VALUE, progress;
+        private boolean applicable = true;
+
+        @Override
+        public boolean isStopped() {
+            return progress >= stopAfter;
+        }
+
+        @Override
+        public boolean apply(List<OWLOntologyChange> chunk) {
+            if (applicable) {
+                applied.add(new ArrayList<>(chunk));
+            }
+            return applicable;
+        }
+
+        @Override
+        public void commit(List<OWLOntologyChange> chunk, String comment) throws IOException {
+            if (committed.size() == failingCommit) {
+                failingCommit = -1;
+                throw new IOException("Connection lost");
+            }
+            committed.add(new ArrayList<>(chunk));
+            comments.add(comment);
+        }
+
+        @Override
+        public void chunkCommitted(int committedChunks) {
+            progress = committedChunks;
+        }
+    }
+}